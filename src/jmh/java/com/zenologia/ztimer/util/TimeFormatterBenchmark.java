@@ -0,0 +1,76 @@
+package com.zenologia.ztimer.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the compiled TimeFormatter with the String.format implementation it replaced.
+ * Run with: mvn -Pbench compile exec:exec
+ * Add -prof gc to the exec arguments to compare allocation per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeFormatterBenchmark {
+
+    private final long[] samples = {4_321L, 65_000L, 754_987L, 4_523_987L};
+
+    private TimeFormatter minutesSeconds;
+    private TimeFormatter withMillis;
+    private int next;
+
+    @Setup
+    public void setup() {
+        minutesSeconds = TimeFormatter.compile("mm:ss");
+        withMillis = TimeFormatter.compile("H:mm:ss.SSS");
+    }
+
+    private long nextSample() {
+        next = (next + 1) & 3;
+        return samples[next];
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        return legacyFormatMillis(nextSample(), "mm:ss");
+    }
+
+    @Benchmark
+    public String compiledMinutesSeconds() {
+        return minutesSeconds.format(nextSample());
+    }
+
+    @Benchmark
+    public String compiledWithMillis() {
+        return withMillis.format(nextSample());
+    }
+
+    // The pre-compiler implementation, kept verbatim as the baseline.
+    private static String legacyFormatMillis(long millis, String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            pattern = "mm:ss";
+        }
+        long totalSeconds = millis / 1000L;
+        long minutes = totalSeconds / 60L;
+        long seconds = totalSeconds % 60L;
+
+        if ("mm:ss".equalsIgnoreCase(pattern)) {
+            return String.format("%d:%02d", minutes, seconds);
+        }
+
+        return String.format("%d:%02d", minutes, seconds);
+    }
+}
@@ -6,9 +6,11 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import com.zenologia.ztimer.command.ZTimerCommand;
 import com.zenologia.ztimer.config.ConfigManager;
+import com.zenologia.ztimer.db.AsyncStorage;
 import com.zenologia.ztimer.db.Storage;
 import com.zenologia.ztimer.listener.PlayerJoinListener;
 import com.zenologia.ztimer.listener.PlayerQuitListener;
+import com.zenologia.ztimer.listener.WorldListener;
 import com.zenologia.ztimer.placeholder.ZTimerExpansion;
 import com.zenologia.ztimer.timer.PendingTeleportManager;
 import com.zenologia.ztimer.timer.TimerManager;
@@ -19,6 +21,7 @@ public class ZTimerPlugin extends JavaPlugin {
 
     private ConfigManager configManager;
     private Storage storage;
+    private AsyncStorage asyncStorage;
     private TimerManager timerManager;
     private PendingTeleportManager pendingTeleportManager;
     private ZTimerExpansion placeholderExpansion;
@@ -49,9 +52,10 @@ public class ZTimerPlugin extends JavaPlugin {
             Bukkit.getPluginManager().disablePlugin(this);
             return;
         }
+        this.asyncStorage = new AsyncStorage(this, storage, configManager);
 
         this.pendingTeleportManager = new PendingTeleportManager(this);
-        this.timerManager = new TimerManager(this, storage, configManager, pendingTeleportManager);
+        this.timerManager = new TimerManager(this, asyncStorage, configManager, pendingTeleportManager);
 
         // Commands
         ZTimerCommand commandExecutor = new ZTimerCommand(this, timerManager, configManager);
@@ -64,6 +68,7 @@ public class ZTimerPlugin extends JavaPlugin {
         PluginManager pm = Bukkit.getPluginManager();
         pm.registerEvents(new PlayerQuitListener(timerManager, pendingTeleportManager), this);
         pm.registerEvents(new PlayerJoinListener(configManager, pendingTeleportManager), this);
+        pm.registerEvents(new WorldListener(timerManager), this);
 
         // PlaceholderAPI expansion
         this.placeholderExpansion = new ZTimerExpansion(this, timerManager, storage, configManager);
@@ -77,9 +82,18 @@ public class ZTimerPlugin extends JavaPlugin {
         if (placeholderExpansion != null) {
             placeholderExpansion.unregister();
         }
+        if (timerManager != null) {
+            timerManager.shutdown();
+        }
+        if (asyncStorage != null) {
+            asyncStorage.shutdown();
+        }
         if (storage != null) {
             storage.shutdown();
         }
+        if (configManager != null) {
+            configManager.shutdown();
+        }
         getLogger().info("ZTimer disabled.");
     }
 
@@ -91,6 +105,10 @@ public class ZTimerPlugin extends JavaPlugin {
         return storage;
     }
 
+    public AsyncStorage getAsyncStorage() {
+        return asyncStorage;
+    }
+
     public TimerManager getTimerManager() {
         return timerManager;
     }
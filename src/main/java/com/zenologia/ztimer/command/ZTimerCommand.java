@@ -3,6 +3,7 @@ package com.zenologia.ztimer.command;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
@@ -14,9 +15,11 @@ import org.bukkit.entity.Player;
 
 import com.zenologia.ztimer.ZTimerPlugin;
 import com.zenologia.ztimer.config.ConfigManager;
+import com.zenologia.ztimer.db.LeaderboardEntry;
+import com.zenologia.ztimer.timer.BestTimeCache;
+import com.zenologia.ztimer.timer.TimerHandle;
 import com.zenologia.ztimer.timer.TimerManager;
 import com.zenologia.ztimer.timer.TimerStartResult;
-import com.zenologia.ztimer.util.TimerIdNormalizer;
 
 public class ZTimerCommand implements CommandExecutor, TabCompleter {
 
@@ -33,7 +36,7 @@ public class ZTimerCommand implements CommandExecutor, TabCompleter {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (args.length == 0) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgUsageBase());
+            sender.sendMessage(configManager.getMsgUsageBase().render());
             return true;
         }
 
@@ -51,64 +54,62 @@ public class ZTimerCommand implements CommandExecutor, TabCompleter {
             case "cancel":
                 handleCancel(sender, args);
                 return true;
+            case "top":
+                handleTop(sender, args);
+                return true;
             case "reload":
                 handleReload(sender);
                 return true;
+            case "stats":
+                handleStats(sender);
+                return true;
             default:
-                sender.sendMessage(configManager.getPrefix() + configManager.getMsgUsageBase());
+                sender.sendMessage(configManager.getMsgUsageBase().render());
                 return true;
         }
     }
 
     private void handleStart(CommandSender sender, String[] args) {
         if (!sender.hasPermission("ztimer.admin")) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgNoPermission());
+            sender.sendMessage(configManager.getMsgNoPermission().render());
             return;
         }
 
         if (args.length < 3) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgUsageStart());
+            sender.sendMessage(configManager.getMsgUsageStart().render());
             return;
         }
 
-        String timerId = resolveConfiguredTimerId(sender, args[1]);
-        if (timerId == null) {
+        TimerHandle timer = resolveConfiguredTimer(sender, args[1]);
+        if (timer == null) {
             return;
         }
+        String timerId = timer.getId();
 
         String selector = args[2];
         List<Player> targets = resolvePlayers(sender, selector);
         if (targets.isEmpty()) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgInvalidPlayerSelector().replace("%selector%", selector));
+            sender.sendMessage(configManager.getMsgInvalidPlayerSelector().render(selector));
             return;
         }
 
         for (Player target : targets) {
-            TimerStartResult result = timerManager.startTimer(target, timerId);
+            TimerStartResult result = timerManager.startTimer(target, timer);
             if (result == null) {
-                sender.sendMessage(configManager.getPrefix() + configManager.getMsgInvalidTimerId().replace("%timer%", args[1]));
+                sender.sendMessage(configManager.getMsgInvalidTimerId().render(args[1]));
                 continue;
             }
 
             switch (result.getType()) {
                 case STARTED:
-                    sender.sendMessage(configManager.getPrefix()
-                            + configManager.getMsgStart()
-                            .replace("%timer%", result.getTimerId())
-                            .replace("%player%", target.getName()));
+                    sender.sendMessage(configManager.getMsgStart().render(result.getTimerId(), target.getName()));
                     break;
                 case ALREADY_RUNNING:
-                    sender.sendMessage(configManager.getPrefix()
-                            + configManager.getMsgTimerAlreadyRunning()
-                            .replace("%timer%", result.getTimerId())
-                            .replace("%player%", target.getName()));
+                    sender.sendMessage(configManager.getMsgTimerAlreadyRunning().render(result.getTimerId(), target.getName()));
                     break;
                 case REPLACED:
-                    sender.sendMessage(configManager.getPrefix()
-                            + configManager.getMsgStartReplaced()
-                            .replace("%timer%", result.getTimerId())
-                            .replace("%previous_timer%", result.getPreviousTimerId())
-                            .replace("%player%", target.getName()));
+                    sender.sendMessage(configManager.getMsgStartReplaced()
+                            .render(result.getTimerId(), result.getPreviousTimerId(), target.getName()));
                     break;
                 default:
                     break;
@@ -118,195 +119,234 @@ public class ZTimerCommand implements CommandExecutor, TabCompleter {
 
     private void handleStop(CommandSender sender, String[] args) {
         if (!sender.hasPermission("ztimer.admin")) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgNoPermission());
+            sender.sendMessage(configManager.getMsgNoPermission().render());
             return;
         }
 
         if (args.length < 3) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgUsageStop());
+            sender.sendMessage(configManager.getMsgUsageStop().render());
             return;
         }
 
-        String timerId = resolveConfiguredTimerId(sender, args[1]);
-        if (timerId == null) {
+        TimerHandle timer = resolveConfiguredTimer(sender, args[1]);
+        if (timer == null) {
             return;
         }
+        String timerId = timer.getId();
 
         String selector = args[2];
         List<Player> targets = resolvePlayers(sender, selector);
         if (targets.isEmpty()) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgInvalidPlayerSelector().replace("%selector%", selector));
+            sender.sendMessage(configManager.getMsgInvalidPlayerSelector().render(selector));
             return;
         }
 
         for (Player target : targets) {
-            Long elapsed = timerManager.stopTimer(target, timerId);
+            Long elapsed = timerManager.stopTimer(target, timer);
             if (elapsed == null) {
-                sender.sendMessage(configManager.getPrefix()
-                        + configManager.getMsgTimerNotRunning()
-                        .replace("%timer%", timerId)
-                        .replace("%player%", target.getName()));
+                sender.sendMessage(configManager.getMsgTimerNotRunning().render(timerId, target.getName()));
                 continue;
             }
 
             String formatted = timerManager.formatMillisOrDefault(elapsed);
-            sender.sendMessage(configManager.getPrefix()
-                    + configManager.getMsgStop()
-                    .replace("%timer%", timerId)
-                    .replace("%player%", target.getName())
-                    .replace("%time%", formatted));
+            sender.sendMessage(configManager.getMsgStop().render(timerId, target.getName(), formatted));
         }
     }
 
     private void handleReset(CommandSender sender, String[] args) {
         if (!sender.hasPermission("ztimer.admin")) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgNoPermission());
+            sender.sendMessage(configManager.getMsgNoPermission().render());
             return;
         }
 
         if (args.length < 2) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgUsageReset());
+            sender.sendMessage(configManager.getMsgUsageReset().render());
             return;
         }
 
-        String timerId = resolveConfiguredTimerId(sender, args[1]);
-        if (timerId == null) {
+        TimerHandle timer = resolveConfiguredTimer(sender, args[1]);
+        if (timer == null) {
             return;
         }
+        String timerId = timer.getId();
 
         if (args.length == 2) {
-            sender.sendMessage(configManager.getPrefix()
-                    + configManager.getMsgResetConfirmGlobal()
-                    .replace("%timer%", timerId)
-                    .replace("%selector%", configManager.getLabelAllPlayers()));
+            sender.sendMessage(configManager.getMsgResetConfirmGlobal().render(timerId, configManager.getLabelAllPlayers()));
             return;
         }
 
         if (args.length == 3 && args[2].equalsIgnoreCase("confirm")) {
-            Bukkit.getScheduler().runTaskAsynchronously(ZTimerPlugin.getInstance(), () -> {
-                try {
-                    ZTimerPlugin.getInstance().getStorage().resetBestTimeForTimer(timerId);
-                    ZTimerPlugin.getInstance().getTimerManager().clearCachesForTimer(timerId);
-                    ZTimerPlugin.getInstance().getTimerManager().refreshLeaderboardCache(timerId);
-                } catch (Exception ex) {
-                    if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
-                        ZTimerPlugin.getInstance().getLogger().severe("Error resetting all times for timer '" + timerId + "': " + ex.getMessage());
-                        ex.printStackTrace();
-                    }
-                }
-            });
-            sender.sendMessage(configManager.getPrefix()
-                    + configManager.getMsgResetSuccessGlobal()
-                    .replace("%timer%", timerId)
-                    .replace("%selector%", configManager.getLabelAllPlayers()));
+            timerManager.resetAllTimes(timer);
+            sender.sendMessage(configManager.getMsgResetSuccessGlobal().render(timerId, configManager.getLabelAllPlayers()));
             return;
         }
 
         String selector = args[2];
         List<Player> targets = resolvePlayers(sender, selector);
         if (targets.isEmpty()) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgInvalidPlayerSelector().replace("%selector%", selector));
+            sender.sendMessage(configManager.getMsgInvalidPlayerSelector().render(selector));
             return;
         }
 
         for (Player target : targets) {
-            boolean reset = timerManager.resetTimer(target, timerId);
+            boolean reset = timerManager.resetTimer(target, timer);
             if (!reset) {
                 continue;
             }
 
-            sender.sendMessage(configManager.getPrefix()
-                    + configManager.getMsgReset()
-                    .replace("%timer%", timerId)
-                    .replace("%player%", target.getName()));
+            sender.sendMessage(configManager.getMsgReset().render(timerId, target.getName()));
         }
     }
 
     private void handleCancel(CommandSender sender, String[] args) {
         if (args.length < 2) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgUsageCancel());
+            sender.sendMessage(configManager.getMsgUsageCancel().render());
             return;
         }
 
-        String timerId = resolveConfiguredTimerId(sender, args[1]);
-        if (timerId == null) {
+        TimerHandle timer = resolveConfiguredTimer(sender, args[1]);
+        if (timer == null) {
             return;
         }
+        String timerId = timer.getId();
 
         if (args.length == 2) {
             if (!(sender instanceof Player)) {
-                sender.sendMessage(configManager.getPrefix() + configManager.getMsgOnlyPlayersSelfCancel());
+                sender.sendMessage(configManager.getMsgOnlyPlayersSelfCancel().render());
                 return;
             }
 
             Player player = (Player) sender;
             if (!player.hasPermission("ztimer.cancel.self")) {
-                sender.sendMessage(configManager.getPrefix() + configManager.getMsgNoPermission());
+                sender.sendMessage(configManager.getMsgNoPermission().render());
                 return;
             }
 
-            boolean cancelled = timerManager.cancelTimer(player, timerId);
+            boolean cancelled = timerManager.cancelTimer(player, timer);
             if (!cancelled) {
-                sender.sendMessage(configManager.getPrefix()
-                        + configManager.getMsgTimerNotRunning()
-                        .replace("%timer%", timerId)
-                        .replace("%player%", player.getName()));
+                sender.sendMessage(configManager.getMsgTimerNotRunning().render(timerId, player.getName()));
                 return;
             }
 
-            sender.sendMessage(configManager.getPrefix()
-                    + configManager.getMsgCancel()
-                    .replace("%timer%", timerId)
-                    .replace("%player%", player.getName()));
+            sender.sendMessage(configManager.getMsgCancel().render(timerId, player.getName()));
             return;
         }
 
         if (!sender.hasPermission("ztimer.admin")) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgNoPermission());
+            sender.sendMessage(configManager.getMsgNoPermission().render());
             return;
         }
 
         String selector = args[2];
         List<Player> targets = resolvePlayers(sender, selector);
         if (targets.isEmpty()) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgInvalidPlayerSelector().replace("%selector%", selector));
+            sender.sendMessage(configManager.getMsgInvalidPlayerSelector().render(selector));
             return;
         }
 
         for (Player target : targets) {
-            boolean cancelled = timerManager.cancelTimer(target, timerId);
+            boolean cancelled = timerManager.cancelTimer(target, timer);
             if (!cancelled) {
-                sender.sendMessage(configManager.getPrefix()
-                        + configManager.getMsgTimerNotRunning()
-                        .replace("%timer%", timerId)
-                        .replace("%player%", target.getName()));
+                sender.sendMessage(configManager.getMsgTimerNotRunning().render(timerId, target.getName()));
                 continue;
             }
 
-            sender.sendMessage(configManager.getPrefix()
-                    + configManager.getMsgCancel()
-                    .replace("%timer%", timerId)
-                    .replace("%player%", target.getName()));
+            sender.sendMessage(configManager.getMsgCancel().render(timerId, target.getName()));
+        }
+    }
+
+    private void handleTop(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("ztimer.top")) {
+            sender.sendMessage(configManager.getMsgNoPermission().render());
+            return;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage(configManager.getMsgUsageTop().render());
+            return;
+        }
+
+        int page = 1;
+        if (args.length >= 3) {
+            try {
+                page = Integer.parseInt(args[2]);
+            } catch (NumberFormatException ex) {
+                page = 0;
+            }
+            if (page < 1) {
+                sender.sendMessage(configManager.getMsgUsageTop().render());
+                return;
+            }
+        }
+
+        TimerHandle timer = resolveConfiguredTimer(sender, args[1]);
+        if (timer == null) {
+            return;
         }
+        String timerId = timer.getId();
+        int pageNumber = page;
+        int firstPosition = (page - 1) * configManager.getLeaderboardPageSize() + 1;
+
+        timerManager.getLeaderboardPage(timer, page).thenAccept(entries ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (entries.isEmpty()) {
+                        sender.sendMessage(configManager.getMsgTopEmpty().render(timerId, String.valueOf(pageNumber)));
+                        return;
+                    }
+
+                    sender.sendMessage(configManager.getMsgTopHeader().render(timerId, String.valueOf(pageNumber)));
+                    int position = firstPosition;
+                    for (LeaderboardEntry entry : entries) {
+                        sender.sendMessage(configManager.getMsgTopEntry().render(String.valueOf(position++),
+                                entry.getPlayerName(), timerManager.formatMillisOrDefault(entry.getBestMillis())));
+                    }
+                }));
     }
 
     private void handleReload(CommandSender sender) {
         if (!sender.hasPermission("ztimer.admin")) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgNoPermission());
+            sender.sendMessage(configManager.getMsgNoPermission().render());
             return;
         }
 
-        plugin.getConfigManager().reload();
-        sender.sendMessage(configManager.getPrefix() + configManager.getMsgReload());
+        // Parsed off the main thread; the result is reported on the main thread once the reload settles.
+        plugin.getConfigManager().reloadAsync().whenComplete((ignored, ex) -> {
+            if (ex == null) {
+                sender.sendMessage(configManager.getMsgReload().render());
+            } else {
+                sender.sendMessage(configManager.getMsgReloadFailed().render(String.valueOf(ex.getMessage())));
+            }
+        });
+    }
+
+    private void handleStats(CommandSender sender) {
+        if (!sender.hasPermission("ztimer.admin")) {
+            sender.sendMessage(configManager.getMsgNoPermission().render());
+            return;
+        }
+
+        BestTimeCache cache = timerManager.getBestTimeCache();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long lookups = hits + misses;
+        String hitRate = lookups == 0 ? "0.0" : String.format(Locale.ROOT, "%.1f", hits * 100.0 / lookups);
+        sender.sendMessage(configManager.getMsgStats().render(
+                String.valueOf(cache.size()),
+                String.valueOf(cache.getMaxEntries()),
+                String.valueOf(hits),
+                String.valueOf(misses),
+                hitRate,
+                String.valueOf(cache.getEvictions())));
     }
 
-    private String resolveConfiguredTimerId(CommandSender sender, String rawTimerId) {
-        if (!configManager.isConfiguredTimerId(rawTimerId)) {
-            sender.sendMessage(configManager.getPrefix() + configManager.getMsgInvalidTimerId().replace("%timer%", rawTimerId));
+    private TimerHandle resolveConfiguredTimer(CommandSender sender, String rawTimerId) {
+        TimerHandle timer = timerManager.getTimerRegistry().resolve(rawTimerId);
+        if (!timerManager.getTimerRegistry().isConfigured(timer)) {
+            sender.sendMessage(configManager.getMsgInvalidTimerId().render(rawTimerId));
             return null;
         }
 
-        return TimerIdNormalizer.normalize(rawTimerId);
+        return timer;
     }
 
     private List<Player> resolvePlayers(CommandSender sender, String selector) {
@@ -340,13 +380,15 @@ public class ZTimerCommand implements CommandExecutor, TabCompleter {
             subs.add("stop");
             subs.add("reset");
             subs.add("cancel");
+            subs.add("top");
             subs.add("reload");
+            subs.add("stats");
             return partial(subs, args[0]);
         }
 
         if (args.length == 2) {
             String sub = args[0].toLowerCase();
-            if (sub.equals("start") || sub.equals("stop") || sub.equals("reset") || sub.equals("cancel")) {
+            if (sub.equals("start") || sub.equals("stop") || sub.equals("reset") || sub.equals("cancel") || sub.equals("top")) {
                 return tabCompleteTimerIds(args[1]);
             }
         }
@@ -1,431 +1,430 @@
 package com.zenologia.ztimer.config;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import com.zenologia.ztimer.ZTimerPlugin;
+import com.zenologia.ztimer.timer.TimerHandle;
+import com.zenologia.ztimer.timer.TimerRegistry;
+import com.zenologia.ztimer.util.MessageTemplate;
+import com.zenologia.ztimer.util.TimeFormatter;
 import com.zenologia.ztimer.util.TimerIdNormalizer;
 
 public class ConfigManager {
 
     private final ZTimerPlugin plugin;
+    private final File configFile;
     private final File messagesFile;
+    private final TimerRegistry timerRegistry = new TimerRegistry();
+    private final ConfigWatcher configWatcher;
 
-    private FileConfiguration config;
-    private YamlConfiguration messagesConfig;
-
-    private int globalTopNDefault;
-    private Map<String, Integer> perTimerTopN;
-    private Map<String, Location> timerExitLocations;
-    private Set<String> configuredTimerIds;
-    private Location fallbackExitLocation;
-    private boolean fallbackExitEnabled;
-
-    private String prefix;
-    private String labelAllPlayers;
-    private String msgNoPermission;
-    private String msgTimerNotRunning;
-    private String msgInvalidTimerId;
-    private String msgInvalidPlayerSelector;
-    private String msgOnlyPlayersSelfCancel;
-    private String msgStart;
-    private String msgStartReplaced;
-    private String msgTimerAlreadyRunning;
-    private String msgStop;
-    private String msgReset;
-    private String msgCancel;
-    private String msgReload;
-    private String msgResetConfirmGlobal;
-    private String msgResetSuccessGlobal;
-    private String msgUsageBase;
-    private String msgUsageStart;
-    private String msgUsageStop;
-    private String msgUsageReset;
-    private String msgUsageCancel;
-
-    private String timeDefault;
-    private String timePattern;
-
-    private boolean debugEnabled;
-    private boolean debugLogStartStop;
-    private boolean debugLogDbErrors;
+    // All derived config state; replaced whole on reload so readers never see a half-applied one.
+    private volatile ConfigSnapshot snapshot;
+    // Incremented after every reload so consumers can drop state derived from the old config.
+    private volatile int reloadCount;
+    // Orders overlapping reloads so a slower, older parse never replaces a newer one.
+    private final AtomicInteger reloadSequence = new AtomicInteger();
+    private int appliedSequence;
 
     public ConfigManager(ZTimerPlugin plugin) {
         this.plugin = plugin;
+        this.configFile = new File(plugin.getDataFolder(), "config.yml");
         this.messagesFile = new File(plugin.getDataFolder(), "messages.yml");
+        this.configWatcher = new ConfigWatcher(plugin, this, configFile, messagesFile);
         reload();
     }
 
+    /**
+     * Reloads on the calling thread. Used at startup, before anything reads the config.
+     * With no previous config to keep, a file that does not parse leaves the bundled defaults in effect.
+     */
     public void reload() {
+        int sequence = reloadSequence.incrementAndGet();
+        ConfigSnapshot next;
+        try {
+            next = load();
+        } catch (IOException | InvalidConfigurationException ex) {
+            plugin.getLogger().severe("Could not load configuration, using the bundled defaults until it is fixed and reloaded: " + ex.getMessage());
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                applyBundledDefaults(config);
+            } catch (IOException | InvalidConfigurationException defaultsError) {
+                throw new IllegalStateException("Bundled config.yml does not parse.", defaultsError);
+            }
+            next = new ConfigSnapshot(plugin, timerRegistry, config, new YamlConfiguration());
+        }
+        apply(sequence, next);
+    }
+
+    /**
+     * Synchronizes and parses the config files on an async task, then swaps the result in
+     * on the main thread. The future completes on the main thread either way: once the new config
+     * is live, or exceptionally if it could not be loaded, in which case the current config stays.
+     */
+    public CompletableFuture<Void> reloadAsync() {
+        int sequence = reloadSequence.incrementAndGet();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            ConfigSnapshot next;
+            try {
+                next = load();
+            } catch (Exception ex) {
+                plugin.getLogger().severe("Could not reload configuration: " + ex.getMessage());
+                Bukkit.getScheduler().runTask(plugin, () -> future.completeExceptionally(ex));
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                apply(sequence, next);
+                future.complete(null);
+            });
+        });
+        return future;
+    }
+
+    /**
+     * Stops the config file watcher, if it is running.
+     */
+    public void shutdown() {
+        configWatcher.stop();
+    }
+
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Parses both files. Unlike YamlConfiguration.loadConfiguration(), which logs a syntax error
+     * and returns an empty config, this throws, so a broken file never replaces the live config.
+     */
+    private ConfigSnapshot load() throws IOException, InvalidConfigurationException {
         ConfigSynchronizer.synchronize(plugin);
-        plugin.reloadConfig();
-        this.config = plugin.getConfig();
 
-        loadConfiguredTimerIds();
+        // Same layering as JavaPlugin.reloadConfig(), without touching the plugin's shared config instance.
+        YamlConfiguration config = parse(configFile);
+        applyBundledDefaults(config);
 
-        this.globalTopNDefault = config.getInt("leaderboards.global_top_n_default", 5);
+        YamlConfiguration messages = messagesFile.exists() ? parse(messagesFile) : new YamlConfiguration();
 
-        this.perTimerTopN = new HashMap<>();
-        ConfigurationSection perTimerSection = config.getConfigurationSection("leaderboards.per_timer");
-        if (perTimerSection != null) {
-            for (String key : perTimerSection.getKeys(false)) {
-                String normalizedId = TimerIdNormalizer.normalize(key);
-                if (normalizedId != null && !normalizedId.isEmpty()) {
-                    perTimerTopN.put(normalizedId, perTimerSection.getInt(key));
-                }
-            }
+        return new ConfigSnapshot(plugin, timerRegistry, config, messages);
+    }
+
+    private void applyBundledDefaults(YamlConfiguration config) throws IOException, InvalidConfigurationException {
+        InputStream defaults = plugin.getResource("config.yml");
+        if (defaults == null) {
+            return;
         }
+        YamlConfiguration defaultConfig = new YamlConfiguration();
+        try (Reader reader = new InputStreamReader(defaults, StandardCharsets.UTF_8)) {
+            defaultConfig.load(reader);
+        }
+        config.setDefaults(defaultConfig);
+    }
 
-        this.timerExitLocations = new HashMap<>();
-        ConfigurationSection mazesSection = config.getConfigurationSection("mazes");
-        if (mazesSection != null) {
-            for (String key : mazesSection.getKeys(false)) {
-                String normalizedId = TimerIdNormalizer.normalize(key);
-                if (normalizedId == null || normalizedId.isEmpty()) {
-                    plugin.getLogger().warning("Maze key '" + key + "' normalized to empty; skipping.");
-                    continue;
-                }
-
-                ConfigurationSection exitSection = mazesSection.getConfigurationSection(key + ".exit_location");
-                if (exitSection == null) {
-                    continue;
-                }
-
-                Location location = parseLocation(exitSection);
-                if (location != null) {
-                    timerExitLocations.put(normalizedId, location);
-                } else {
-                    plugin.getLogger().warning("Invalid exit location for maze '" + key + "'.");
-                }
-            }
+    /**
+     * @throws InvalidConfigurationException if the file is not valid YAML
+     */
+    static YamlConfiguration parse(File file) throws IOException, InvalidConfigurationException {
+        YamlConfiguration configuration = new YamlConfiguration();
+        configuration.load(file);
+        return configuration;
+    }
+
+    /**
+     * Publishes a loaded snapshot. Main thread only.
+     */
+    private void apply(int sequence, ConfigSnapshot next) {
+        if (sequence < appliedSequence) {
+            return;
         }
+        appliedSequence = sequence;
+
+        timerRegistry.configure(next.configuredTimerIds);
+        this.snapshot = next;
+        reloadCount++;
+        warnMissingWorlds(next);
 
-        ConfigurationSection fallbackSection = config.getConfigurationSection("fallback_exit_location");
-        if (fallbackSection != null) {
-            this.fallbackExitEnabled = fallbackSection.getBoolean("enabled", false);
-            this.fallbackExitLocation = fallbackExitEnabled ? parseLocation(fallbackSection) : null;
+        if (next.configWatcherEnabled) {
+            configWatcher.start();
         } else {
-            this.fallbackExitEnabled = false;
-            this.fallbackExitLocation = null;
+            configWatcher.stop();
         }
+    }
 
-        loadMessages();
+    private void warnMissingWorlds(ConfigSnapshot current) {
+        Set<String> warned = new HashSet<>();
+        for (TimerDefinition definition : current.timerDefinitions.values()) {
+            warnIfWorldMissing(definition.getExitLocation(), warned);
+        }
+        warnIfWorldMissing(current.fallbackExitLocation, warned);
+    }
 
-        this.timeDefault = config.getString("formatting.time_default", "-");
-        this.timePattern = config.getString("formatting.time_pattern", "mm:ss");
+    private void warnIfWorldMissing(ConfiguredLocation location, Set<String> warned) {
+        if (location != null && Bukkit.getWorld(location.getWorldName()) == null && warned.add(location.getWorldName())) {
+            plugin.getLogger().warning("World '" + location.getWorldName() + "' not found for location.");
+        }
+    }
 
-        this.debugEnabled = config.getBoolean("debug.enabled", false);
-        this.debugLogStartStop = config.getBoolean("debug.log_start_stop", true);
-        this.debugLogDbErrors = config.getBoolean("debug.log_db_errors", true);
+    /**
+     * @return the compiled definition, or null if the config never mentions the timer
+     */
+    public TimerDefinition getTimerDefinition(TimerHandle timer) {
+        return snapshot.timerDefinitions.get(timer);
     }
 
-    private void loadConfiguredTimerIds() {
-        Set<String> ids = new HashSet<>();
-        ConfigurationSection timersSection = config.getConfigurationSection("timers");
-        if (timersSection != null) {
-            for (String key : timersSection.getKeys(false)) {
-                String normalizedId = TimerIdNormalizer.normalize(key);
-                if (normalizedId == null || normalizedId.isEmpty()) {
-                    plugin.getLogger().warning("Timer key '" + key + "' normalized to empty; skipping.");
-                    continue;
-                }
-                ids.add(normalizedId);
-            }
-        }
-        this.configuredTimerIds = ids;
-    }
-
-    private void loadMessages() {
-        this.messagesConfig = messagesFile.exists()
-                ? YamlConfiguration.loadConfiguration(messagesFile)
-                : new YamlConfiguration();
-
-        this.prefix = color(message("prefix", "&7[&bZTimer&7] "));
-        this.labelAllPlayers = color(message("shared.all_players", "all players"));
-
-        this.msgNoPermission = color(message("errors.no_permission", "You do not have permission."));
-        this.msgTimerNotRunning = color(message("errors.timer_not_running",
-                "Timer &e%timer%&7 is not running for &b%player%&7."));
-        this.msgInvalidTimerId = color(message("errors.invalid_timer_id",
-                "Timer ID &e%timer%&7 is not configured under timers."));
-        this.msgInvalidPlayerSelector = color(message("errors.invalid_player_selector",
-                "No valid players found for selector &e%selector%&7."));
-        this.msgOnlyPlayersSelfCancel = color(message("errors.only_players_self_cancel",
-                "Only players may self-cancel."));
-
-        this.msgStart = color(message("info.start", "Started timer &e%timer%&7 for &b%player%&7."));
-        this.msgStartReplaced = color(message("info.start_replaced",
-                "Started timer &e%timer%&7 for &b%player%&7. Active timer &e%previous_timer%&7 was canceled."));
-        this.msgTimerAlreadyRunning = color(message("info.timer_already_running",
-                "Timer &e%timer%&7 is already running for &b%player%&7."));
-        this.msgStop = color(message("info.stop", "Stopped timer &e%timer%&7 for &b%player%&7. Time: &a%time%&7."));
-        this.msgReset = color(message("info.reset", "Reset timer &e%timer%&7 for &b%player%&7."));
-        this.msgCancel = color(message("info.cancel", "Canceled timer &e%timer%&7 for &b%player%&7."));
-        this.msgReload = color(message("info.reload", "ZTimer configuration reloaded."));
-        this.msgResetConfirmGlobal = color(message("info.reset_confirm",
-                "This will reset all stored times for timer &e%timer%&7 for &b%selector%&7. Type &c/ztimer reset %timer% confirm&7 to confirm."));
-        this.msgResetSuccessGlobal = color(message("info.reset_success",
-                "Reset timer &e%timer%&7 for &b%selector%&7."));
-
-        this.msgUsageBase = color(message("usage.base", "/ztimer <start|stop|reset|cancel|reload> ..."));
-        this.msgUsageStart = color(message("usage.start", "Usage: /ztimer start <timerId> <playerSelector>"));
-        this.msgUsageStop = color(message("usage.stop", "Usage: /ztimer stop <timerId> <playerSelector>"));
-        this.msgUsageReset = color(message("usage.reset", "Usage: /ztimer reset <timerId> [playerSelector|confirm]"));
-        this.msgUsageCancel = color(message("usage.cancel", "Usage: /ztimer cancel <timerId> [playerSelector]"));
-    }
-
-    private String message(String path, String defaultValue) {
-        return messagesConfig.getString(path, defaultValue);
-    }
-
-    private Location parseLocation(ConfigurationSection section) {
-        String worldName = section.getString("world");
-        if (worldName == null) {
-            return null;
-        }
+    public int getTopNForTimer(String timerId) {
+        return getTopNForTimer(timerRegistry.resolve(timerId));
+    }
 
-        World world = Bukkit.getWorld(worldName);
-        if (world == null) {
-            plugin.getLogger().warning("World '" + worldName + "' not found for location.");
-            return null;
-        }
+    public int getTopNForTimer(TimerHandle timer) {
+        ConfigSnapshot current = snapshot;
+        TimerDefinition definition = timer == null ? null : current.timerDefinitions.get(timer);
+        return definition == null ? current.globalTopNDefault : definition.getTopN();
+    }
 
-        double x = section.getDouble("x");
-        double y = section.getDouble("y");
-        double z = section.getDouble("z");
-        float yaw = (float) section.getDouble("yaw");
-        float pitch = (float) section.getDouble("pitch");
-        return new Location(world, x, y, z, yaw, pitch);
+    public int getLeaderboardTailSize() {
+        return snapshot.leaderboardTailSize;
     }
 
-    private String color(String input) {
-        return input == null ? "" : input.replace('&', '\u00A7');
+    public long getLeaderboardRefreshDebounceMs() {
+        return snapshot.leaderboardRefreshDebounceMs;
     }
 
-    public int getTopNForTimer(String timerId) {
-        String normalized = TimerIdNormalizer.normalize(timerId);
-        if (normalized == null) {
-            return globalTopNDefault;
-        }
-        return perTimerTopN.getOrDefault(normalized, globalTopNDefault);
+    public int getLeaderboardPageSize() {
+        return snapshot.leaderboardPageSize;
     }
 
     public Map<String, Integer> getPerTimerTopN() {
-        return Collections.unmodifiableMap(perTimerTopN);
+        return snapshot.perTimerTopN;
     }
 
     public Location getExitLocationForTimer(String timerId) {
-        String normalized = TimerIdNormalizer.normalize(timerId);
-        if (normalized == null) {
-            return null;
-        }
+        TimerHandle timer = timerRegistry.resolve(timerId);
+        return timer == null ? null : getExitLocationForTimer(timer);
+    }
 
-        Location location = timerExitLocations.get(normalized);
-        return location == null ? null : location.clone();
+    public Location getExitLocationForTimer(TimerHandle timer) {
+        TimerDefinition definition = snapshot.timerDefinitions.get(timer);
+        ConfiguredLocation exit = definition == null ? null : definition.getExitLocation();
+        return exit == null ? null : exit.toLocation();
     }
 
     public boolean isFallbackExitEnabled() {
-        return fallbackExitEnabled;
+        return snapshot.fallbackExitEnabled;
     }
 
     public Location getFallbackExitLocation() {
-        return fallbackExitLocation == null ? null : fallbackExitLocation.clone();
+        ConfiguredLocation fallback = snapshot.fallbackExitLocation;
+        return fallback == null ? null : fallback.toLocation();
     }
 
     public boolean isConfiguredTimerId(String timerId) {
         String normalized = TimerIdNormalizer.normalize(timerId);
-        return normalized != null && configuredTimerIds.contains(normalized);
+        return normalized != null && snapshot.configuredTimerIds.contains(normalized);
     }
 
     public String getPrefix() {
-        return prefix;
+        return snapshot.prefix;
     }
 
     public String getLabelAllPlayers() {
-        return labelAllPlayers;
+        return snapshot.labelAllPlayers;
     }
 
-    public String getMsgNoPermission() {
-        return msgNoPermission;
+    // Messages are compiled on reload with the prefix already joined in front; only top_entry has none.
+    public MessageTemplate getMsgNoPermission() {
+        return snapshot.msgNoPermission;
     }
 
-    public String getMsgTimerNotRunning() {
-        return msgTimerNotRunning;
+    public MessageTemplate getMsgTimerNotRunning() {
+        return snapshot.msgTimerNotRunning;
     }
 
-    public String getMsgInvalidTimerId() {
-        return msgInvalidTimerId;
+    public MessageTemplate getMsgInvalidTimerId() {
+        return snapshot.msgInvalidTimerId;
     }
 
-    public String getMsgInvalidPlayerSelector() {
-        return msgInvalidPlayerSelector;
+    public MessageTemplate getMsgInvalidPlayerSelector() {
+        return snapshot.msgInvalidPlayerSelector;
     }
 
-    public String getMsgOnlyPlayersSelfCancel() {
-        return msgOnlyPlayersSelfCancel;
+    public MessageTemplate getMsgOnlyPlayersSelfCancel() {
+        return snapshot.msgOnlyPlayersSelfCancel;
     }
 
-    public String getMsgStart() {
-        return msgStart;
+    public MessageTemplate getMsgReloadFailed() {
+        return snapshot.msgReloadFailed;
     }
 
-    public String getMsgStartReplaced() {
-        return msgStartReplaced;
+    public MessageTemplate getMsgStart() {
+        return snapshot.msgStart;
     }
 
-    public String getMsgTimerAlreadyRunning() {
-        return msgTimerAlreadyRunning;
+    public MessageTemplate getMsgStartReplaced() {
+        return snapshot.msgStartReplaced;
     }
 
-    public String getMsgStop() {
-        return msgStop;
+    public MessageTemplate getMsgTimerAlreadyRunning() {
+        return snapshot.msgTimerAlreadyRunning;
     }
 
-    public String getMsgReset() {
-        return msgReset;
+    public MessageTemplate getMsgStop() {
+        return snapshot.msgStop;
     }
 
-    public String getMsgCancel() {
-        return msgCancel;
+    public MessageTemplate getMsgReset() {
+        return snapshot.msgReset;
     }
 
-    public String getMsgReload() {
-        return msgReload;
+    public MessageTemplate getMsgCancel() {
+        return snapshot.msgCancel;
     }
 
-    public String getMsgResetConfirmGlobal() {
-        return msgResetConfirmGlobal;
+    public MessageTemplate getMsgReload() {
+        return snapshot.msgReload;
     }
 
-    public String getMsgResetSuccessGlobal() {
-        return msgResetSuccessGlobal;
+    public MessageTemplate getMsgResetConfirmGlobal() {
+        return snapshot.msgResetConfirmGlobal;
     }
 
-    public String getMsgUsageBase() {
-        return msgUsageBase;
+    public MessageTemplate getMsgResetSuccessGlobal() {
+        return snapshot.msgResetSuccessGlobal;
     }
 
-    public String getMsgUsageStart() {
-        return msgUsageStart;
+    public MessageTemplate getMsgStats() {
+        return snapshot.msgStats;
     }
 
-    public String getMsgUsageStop() {
-        return msgUsageStop;
+    public MessageTemplate getMsgTopHeader() {
+        return snapshot.msgTopHeader;
     }
 
-    public String getMsgUsageReset() {
-        return msgUsageReset;
+    public MessageTemplate getMsgTopEntry() {
+        return snapshot.msgTopEntry;
     }
 
-    public String getMsgUsageCancel() {
-        return msgUsageCancel;
+    public MessageTemplate getMsgTopEmpty() {
+        return snapshot.msgTopEmpty;
     }
 
-    public String getTimeDefault() {
-        return timeDefault;
+    public MessageTemplate getMsgUsageBase() {
+        return snapshot.msgUsageBase;
     }
 
-    public String getTimePattern() {
-        return timePattern;
+    public MessageTemplate getMsgUsageStart() {
+        return snapshot.msgUsageStart;
     }
 
-    public boolean isDebugEnabled() {
-        return debugEnabled;
+    public MessageTemplate getMsgUsageStop() {
+        return snapshot.msgUsageStop;
     }
 
-    public boolean isDebugLogStartStop() {
-        return debugLogStartStop;
+    public MessageTemplate getMsgUsageReset() {
+        return snapshot.msgUsageReset;
     }
 
-    public boolean isDebugLogDbErrors() {
-        return debugLogDbErrors;
+    public MessageTemplate getMsgUsageCancel() {
+        return snapshot.msgUsageCancel;
     }
 
-    public Set<String> getKnownTimerIds() {
-        return Collections.unmodifiableSet(configuredTimerIds);
+    public MessageTemplate getMsgUsageTop() {
+        return snapshot.msgUsageTop;
     }
 
-    public FileConfiguration getRawConfig() {
-        return config;
+    public String getTimeDefault() {
+        return snapshot.timeDefault;
     }
 
-    public List<String> getRelogCommandsForTimer(String timerId) {
-        if (timerId == null) {
-            return Collections.emptyList();
-        }
+    public String getTimePattern() {
+        return snapshot.timePattern;
+    }
 
-        String normalized = TimerIdNormalizer.normalize(timerId);
+    public TimeFormatter getTimeFormatter() {
+        return snapshot.timeFormatter;
+    }
 
-        String timersPath = "timers." + timerId + ".relog-commands";
-        if (config.contains(timersPath)) {
-            return config.getStringList(timersPath);
-        }
+    public boolean isWriteBehindEnabled() {
+        return snapshot.writeBehindEnabled;
+    }
 
-        if (normalized != null) {
-            String normalizedTimersPath = "timers." + normalized + ".relog-commands";
-            if (config.contains(normalizedTimersPath)) {
-                return config.getStringList(normalizedTimersPath);
-            }
-        }
+    public int getWriteBehindBatchSize() {
+        return snapshot.writeBehindBatchSize;
+    }
 
-        String mazesPath = "mazes." + timerId + ".relog-commands";
-        if (config.contains(mazesPath)) {
-            return config.getStringList(mazesPath);
-        }
+    public long getWriteBehindFlushIntervalMs() {
+        return snapshot.writeBehindFlushIntervalMs;
+    }
 
-        if (normalized != null) {
-            String normalizedMazesPath = "mazes." + normalized + ".relog-commands";
-            if (config.contains(normalizedMazesPath)) {
-                return config.getStringList(normalizedMazesPath);
-            }
-        }
+    public boolean isCacheAsyncLoad() {
+        return snapshot.cacheAsyncLoad;
+    }
 
-        return Collections.emptyList();
+    public boolean isCacheRenderPerTick() {
+        return snapshot.cacheRenderPerTick;
     }
 
-    public List<String> getLogoutCommandsForTimer(String timerId) {
-        if (timerId == null) {
-            return Collections.emptyList();
-        }
+    public boolean isConfigWatcherEnabled() {
+        return snapshot.configWatcherEnabled;
+    }
 
-        String normalized = TimerIdNormalizer.normalize(timerId);
+    public long getConfigWatcherDebounceMs() {
+        return snapshot.configWatcherDebounceMs;
+    }
 
-        String timersPath = "timers." + timerId + ".logout-commands";
-        if (config.contains(timersPath)) {
-            return config.getStringList(timersPath);
-        }
+    public int getBestTimeCacheMaxEntries() {
+        return snapshot.bestTimeCacheMaxEntries;
+    }
 
-        if (normalized != null) {
-            String normalizedTimersPath = "timers." + normalized + ".logout-commands";
-            if (config.contains(normalizedTimersPath)) {
-                return config.getStringList(normalizedTimersPath);
-            }
-        }
+    public boolean isDebugEnabled() {
+        return snapshot.debugEnabled;
+    }
 
-        String mazesPath = "mazes." + timerId + ".logout-commands";
-        if (config.contains(mazesPath)) {
-            return config.getStringList(mazesPath);
-        }
+    public boolean isDebugLogStartStop() {
+        return snapshot.debugLogStartStop;
+    }
 
-        if (normalized != null) {
-            String normalizedMazesPath = "mazes." + normalized + ".logout-commands";
-            if (config.contains(normalizedMazesPath)) {
-                return config.getStringList(normalizedMazesPath);
-            }
-        }
+    public boolean isDebugLogDbErrors() {
+        return snapshot.debugLogDbErrors;
+    }
+
+    public TimerRegistry getTimerRegistry() {
+        return timerRegistry;
+    }
+
+    public Set<String> getKnownTimerIds() {
+        return snapshot.configuredTimerIds;
+    }
 
-        return Collections.emptyList();
+    public FileConfiguration getRawConfig() {
+        return snapshot.config;
+    }
+
+    public List<String> getRelogCommandsForTimer(String timerId) {
+        TimerHandle timer = timerRegistry.resolve(timerId);
+        TimerDefinition definition = timer == null ? null : snapshot.timerDefinitions.get(timer);
+        return definition == null ? Collections.emptyList() : definition.getRelogCommands();
+    }
+
+    public List<String> getLogoutCommandsForTimer(String timerId) {
+        TimerHandle timer = timerRegistry.resolve(timerId);
+        TimerDefinition definition = timer == null ? null : snapshot.timerDefinitions.get(timer);
+        return definition == null ? Collections.emptyList() : definition.getLogoutCommands();
     }
 }
@@ -0,0 +1,319 @@
+package com.zenologia.ztimer.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.zenologia.ztimer.ZTimerPlugin;
+import com.zenologia.ztimer.timer.TimerHandle;
+import com.zenologia.ztimer.timer.TimerRegistry;
+import com.zenologia.ztimer.util.MessageTemplate;
+import com.zenologia.ztimer.util.TimeFormatter;
+import com.zenologia.ztimer.util.TimerIdNormalizer;
+
+/**
+ * Everything derived from config.yml and messages.yml by one reload.
+ * Built off the main thread and never modified afterwards; ConfigManager publishes it
+ * through a single volatile reference, so readers always see one consistent reload.
+ * Worlds are not resolved here, since Bukkit's world list is only safe to read on the main thread.
+ */
+final class ConfigSnapshot {
+
+    final FileConfiguration config;
+
+    final int globalTopNDefault;
+    final int leaderboardTailSize;
+    final long leaderboardRefreshDebounceMs;
+    final int leaderboardPageSize;
+    final Map<String, Integer> perTimerTopN;
+    final Map<TimerHandle, TimerDefinition> timerDefinitions;
+    final Set<String> configuredTimerIds;
+    final ConfiguredLocation fallbackExitLocation;
+    final boolean fallbackExitEnabled;
+
+    final String prefix;
+    final String labelAllPlayers;
+    final MessageTemplate msgNoPermission;
+    final MessageTemplate msgTimerNotRunning;
+    final MessageTemplate msgInvalidTimerId;
+    final MessageTemplate msgInvalidPlayerSelector;
+    final MessageTemplate msgOnlyPlayersSelfCancel;
+    final MessageTemplate msgReloadFailed;
+    final MessageTemplate msgStart;
+    final MessageTemplate msgStartReplaced;
+    final MessageTemplate msgTimerAlreadyRunning;
+    final MessageTemplate msgStop;
+    final MessageTemplate msgReset;
+    final MessageTemplate msgCancel;
+    final MessageTemplate msgReload;
+    final MessageTemplate msgResetConfirmGlobal;
+    final MessageTemplate msgResetSuccessGlobal;
+    final MessageTemplate msgStats;
+    final MessageTemplate msgTopHeader;
+    final MessageTemplate msgTopEntry;
+    final MessageTemplate msgTopEmpty;
+    final MessageTemplate msgUsageBase;
+    final MessageTemplate msgUsageStart;
+    final MessageTemplate msgUsageStop;
+    final MessageTemplate msgUsageReset;
+    final MessageTemplate msgUsageCancel;
+    final MessageTemplate msgUsageTop;
+
+    final String timeDefault;
+    final String timePattern;
+    final TimeFormatter timeFormatter;
+
+    final boolean writeBehindEnabled;
+    final int writeBehindBatchSize;
+    final long writeBehindFlushIntervalMs;
+
+    final boolean cacheAsyncLoad;
+    final int bestTimeCacheMaxEntries;
+    final boolean cacheRenderPerTick;
+
+    final boolean configWatcherEnabled;
+    final long configWatcherDebounceMs;
+
+    final boolean debugEnabled;
+    final boolean debugLogStartStop;
+    final boolean debugLogDbErrors;
+
+    ConfigSnapshot(ZTimerPlugin plugin, TimerRegistry timerRegistry, FileConfiguration config, YamlConfiguration messages) {
+        this.config = config;
+
+        this.configuredTimerIds = loadConfiguredTimerIds(plugin);
+
+        this.globalTopNDefault = config.getInt("leaderboards.global_top_n_default", 5);
+        this.leaderboardTailSize = Math.max(0, config.getInt("leaderboards.tail_buffer", 20));
+        this.leaderboardRefreshDebounceMs = Math.max(0L, config.getLong("leaderboards.refresh_debounce_ms", 1000L));
+        this.leaderboardPageSize = Math.max(1, config.getInt("leaderboards.page_size", 10));
+
+        Map<String, Integer> topNByTimer = new HashMap<>();
+        ConfigurationSection perTimerSection = config.getConfigurationSection("leaderboards.per_timer");
+        if (perTimerSection != null) {
+            for (String key : perTimerSection.getKeys(false)) {
+                String normalizedId = TimerIdNormalizer.normalize(key);
+                if (normalizedId != null && !normalizedId.isEmpty()) {
+                    topNByTimer.put(normalizedId, perTimerSection.getInt(key));
+                }
+            }
+        }
+        this.perTimerTopN = Collections.unmodifiableMap(topNByTimer);
+
+        Map<String, ConfiguredLocation> exitLocations = new HashMap<>();
+        ConfigurationSection mazesSection = config.getConfigurationSection("mazes");
+        if (mazesSection != null) {
+            for (String key : mazesSection.getKeys(false)) {
+                String normalizedId = TimerIdNormalizer.normalize(key);
+                if (normalizedId == null || normalizedId.isEmpty()) {
+                    plugin.getLogger().warning("Maze key '" + key + "' normalized to empty; skipping.");
+                    continue;
+                }
+
+                ConfigurationSection exitSection = mazesSection.getConfigurationSection(key + ".exit_location");
+                if (exitSection == null) {
+                    continue;
+                }
+
+                ConfiguredLocation location = parseLocation(exitSection);
+                if (location != null) {
+                    exitLocations.put(normalizedId, location);
+                } else {
+                    plugin.getLogger().warning("Invalid exit location for maze '" + key + "'.");
+                }
+            }
+        }
+
+        this.timerDefinitions = compileTimerDefinitions(timerRegistry, exitLocations);
+
+        ConfigurationSection fallbackSection = config.getConfigurationSection("fallback_exit_location");
+        if (fallbackSection != null) {
+            this.fallbackExitEnabled = fallbackSection.getBoolean("enabled", false);
+            this.fallbackExitLocation = fallbackExitEnabled ? parseLocation(fallbackSection) : null;
+        } else {
+            this.fallbackExitEnabled = false;
+            this.fallbackExitLocation = null;
+        }
+
+        this.prefix = color(message(messages, "prefix", "&7[&bZTimer&7] "));
+        this.labelAllPlayers = color(message(messages, "shared.all_players", "all players"));
+
+        this.msgNoPermission = template(messages, "errors.no_permission", "You do not have permission.");
+        this.msgTimerNotRunning = template(messages, "errors.timer_not_running",
+                "Timer &e%timer%&7 is not running for &b%player%&7.", "timer", "player");
+        this.msgInvalidTimerId = template(messages, "errors.invalid_timer_id",
+                "Timer ID &e%timer%&7 is not configured under timers.", "timer");
+        this.msgInvalidPlayerSelector = template(messages, "errors.invalid_player_selector",
+                "No valid players found for selector &e%selector%&7.", "selector");
+        this.msgOnlyPlayersSelfCancel = template(messages, "errors.only_players_self_cancel",
+                "Only players may self-cancel.");
+        this.msgReloadFailed = template(messages, "errors.reload_failed",
+                "Could not reload the configuration: &c%error%&7. The previous configuration is still active.", "error");
+
+        this.msgStart = template(messages, "info.start", "Started timer &e%timer%&7 for &b%player%&7.", "timer", "player");
+        this.msgStartReplaced = template(messages, "info.start_replaced",
+                "Started timer &e%timer%&7 for &b%player%&7. Active timer &e%previous_timer%&7 was canceled.", "timer", "previous_timer", "player");
+        this.msgTimerAlreadyRunning = template(messages, "info.timer_already_running",
+                "Timer &e%timer%&7 is already running for &b%player%&7.", "timer", "player");
+        this.msgStop = template(messages, "info.stop", "Stopped timer &e%timer%&7 for &b%player%&7. Time: &a%time%&7.", "timer", "player", "time");
+        this.msgReset = template(messages, "info.reset", "Reset timer &e%timer%&7 for &b%player%&7.", "timer", "player");
+        this.msgCancel = template(messages, "info.cancel", "Canceled timer &e%timer%&7 for &b%player%&7.", "timer", "player");
+        this.msgReload = template(messages, "info.reload", "ZTimer configuration reloaded.");
+        this.msgResetConfirmGlobal = template(messages, "info.reset_confirm",
+                "This will reset all stored times for timer &e%timer%&7 for &b%selector%&7. Type &c/ztimer reset %timer% confirm&7 to confirm.", "timer", "selector");
+        this.msgResetSuccessGlobal = template(messages, "info.reset_success",
+                "Reset timer &e%timer%&7 for &b%selector%&7.", "timer", "selector");
+
+        this.msgStats = template(messages, "info.stats",
+                "Best-time cache: &e%size%&7/&e%max%&7 entries, &a%hits%&7 hits, &c%misses%&7 misses (&e%hit_rate%%&7 hit rate), &e%evictions%&7 evictions.", "size", "max", "hits", "misses", "hit_rate", "evictions");
+
+        this.msgTopHeader = template(messages, "info.top_header", "Top times for &e%timer%&7 (page &e%page%&7):", "timer", "page");
+        this.msgTopEntry = MessageTemplate.compile(color(message(messages, "info.top_entry", "&e#%position% &b%player%&7 - &a%time%")), "position", "player", "time");
+        this.msgTopEmpty = template(messages, "info.top_empty", "No times on page &e%page%&7 for timer &e%timer%&7.", "timer", "page");
+
+        this.msgUsageBase = template(messages, "usage.base", "/ztimer <start|stop|reset|cancel|top|reload|stats> ...");
+        this.msgUsageStart = template(messages, "usage.start", "Usage: /ztimer start <timerId> <playerSelector>");
+        this.msgUsageStop = template(messages, "usage.stop", "Usage: /ztimer stop <timerId> <playerSelector>");
+        this.msgUsageReset = template(messages, "usage.reset", "Usage: /ztimer reset <timerId> [playerSelector|confirm]");
+        this.msgUsageCancel = template(messages, "usage.cancel", "Usage: /ztimer cancel <timerId> [playerSelector]");
+        this.msgUsageTop = template(messages, "usage.top", "Usage: /ztimer top <timerId> [page]");
+
+        this.timeDefault = config.getString("formatting.time_default", "-");
+        TimeFormatter formatter;
+        try {
+            formatter = TimeFormatter.compile(config.getString("formatting.time_pattern", "mm:ss"));
+        } catch (IllegalArgumentException ex) {
+            plugin.getLogger().warning("Invalid formatting.time_pattern, using mm:ss: " + ex.getMessage());
+            formatter = TimeFormatter.compile(null);
+        }
+        this.timePattern = formatter.getPattern();
+        this.timeFormatter = formatter;
+
+        this.writeBehindEnabled = config.getBoolean("storage.write_behind.enabled", true);
+        this.writeBehindBatchSize = config.getInt("storage.write_behind.batch_size", 50);
+        this.writeBehindFlushIntervalMs = config.getLong("storage.write_behind.flush_interval_ms", 1000L);
+
+        this.cacheAsyncLoad = config.getBoolean("cache.async_load", true);
+        this.bestTimeCacheMaxEntries = config.getInt("cache.best_times.max_entries", 10000);
+        this.cacheRenderPerTick = config.getBoolean("cache.render_per_tick", true);
+
+        this.configWatcherEnabled = config.getBoolean("config_watcher.enabled", false);
+        this.configWatcherDebounceMs = Math.max(50L, config.getLong("config_watcher.debounce_ms", 500L));
+
+        this.debugEnabled = config.getBoolean("debug.enabled", false);
+        this.debugLogStartStop = config.getBoolean("debug.log_start_stop", true);
+        this.debugLogDbErrors = config.getBoolean("debug.log_db_errors", true);
+    }
+
+    private Set<String> loadConfiguredTimerIds(ZTimerPlugin plugin) {
+        Set<String> ids = new HashSet<>();
+        ConfigurationSection timersSection = config.getConfigurationSection("timers");
+        if (timersSection != null) {
+            for (String key : timersSection.getKeys(false)) {
+                String normalizedId = TimerIdNormalizer.normalize(key);
+                if (normalizedId == null || normalizedId.isEmpty()) {
+                    plugin.getLogger().warning("Timer key '" + key + "' normalized to empty; skipping.");
+                    continue;
+                }
+                ids.add(normalizedId);
+            }
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Builds one definition per timer mentioned under timers, mazes or leaderboards.per_timer,
+     * so runtime lookups never walk the YAML tree. Commands under timers win over mazes.
+     */
+    private Map<TimerHandle, TimerDefinition> compileTimerDefinitions(TimerRegistry timerRegistry, Map<String, ConfiguredLocation> exitLocations) {
+        Set<String> ids = new HashSet<>(configuredTimerIds);
+        ids.addAll(exitLocations.keySet());
+        ids.addAll(perTimerTopN.keySet());
+
+        Map<String, List<String>> relogCommands = new HashMap<>();
+        Map<String, List<String>> logoutCommands = new HashMap<>();
+        collectCommands("mazes", relogCommands, logoutCommands);
+        collectCommands("timers", relogCommands, logoutCommands);
+        ids.addAll(relogCommands.keySet());
+        ids.addAll(logoutCommands.keySet());
+
+        Map<TimerHandle, TimerDefinition> definitions = new HashMap<>();
+        for (String id : ids) {
+            TimerHandle timer = timerRegistry.intern(id);
+            definitions.put(timer, new TimerDefinition(timer,
+                    exitLocations.get(id),
+                    perTimerTopN.getOrDefault(id, globalTopNDefault),
+                    relogCommands.getOrDefault(id, Collections.emptyList()),
+                    logoutCommands.getOrDefault(id, Collections.emptyList())));
+        }
+        return Collections.unmodifiableMap(definitions);
+    }
+
+    /**
+     * Reads relog-commands and logout-commands for every key under the section, keyed by
+     * normalized id. Later calls override earlier ones, and a key that is already normalized
+     * wins over other spellings of the same id.
+     */
+    private void collectCommands(String sectionPath, Map<String, List<String>> relogCommands, Map<String, List<String>> logoutCommands) {
+        ConfigurationSection section = config.getConfigurationSection(sectionPath);
+        if (section == null) {
+            return;
+        }
+        Set<String> seen = new HashSet<>();
+        for (String key : section.getKeys(false)) {
+            String normalizedId = TimerIdNormalizer.normalize(key);
+            if (normalizedId == null || normalizedId.isEmpty()) {
+                continue;
+            }
+            boolean exact = key.equals(normalizedId);
+            if (!exact && !seen.add(normalizedId)) {
+                continue;
+            }
+            if (exact) {
+                seen.add(normalizedId);
+            }
+            if (section.contains(key + ".relog-commands")) {
+                relogCommands.put(normalizedId, section.getStringList(key + ".relog-commands"));
+            }
+            if (section.contains(key + ".logout-commands")) {
+                logoutCommands.put(normalizedId, section.getStringList(key + ".logout-commands"));
+            }
+        }
+    }
+
+    private static String message(YamlConfiguration messages, String path, String defaultValue) {
+        return messages.getString(path, defaultValue);
+    }
+
+    /**
+     * Compiles a chat message with the prefix already joined in front.
+     */
+    private MessageTemplate template(YamlConfiguration messages, String path, String defaultValue, String... parameters) {
+        return MessageTemplate.compileWithPrefix(prefix, color(message(messages, path, defaultValue)), parameters);
+    }
+
+    private static ConfiguredLocation parseLocation(ConfigurationSection section) {
+        String worldName = section.getString("world");
+        if (worldName == null) {
+            return null;
+        }
+
+        double x = section.getDouble("x");
+        double y = section.getDouble("y");
+        double z = section.getDouble("z");
+        float yaw = (float) section.getDouble("yaw");
+        float pitch = (float) section.getDouble("pitch");
+        return new ConfiguredLocation(worldName, x, y, z, yaw, pitch);
+    }
+
+    private static String color(String input) {
+        return input == null ? "" : input.replace('&', '\u00A7');
+    }
+}
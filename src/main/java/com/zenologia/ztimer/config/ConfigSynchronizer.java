@@ -40,19 +40,47 @@ final class ConfigSynchronizer {
         this.messagesFile = new File(dataFolder, "messages.yml");
     }
 
-    public static void synchronize(ZTimerPlugin plugin) {
-        new ConfigSynchronizer(plugin).synchronizeInternal();
+    // Hash of config.yml and messages.yml as the last successful pass left them.
+    private static volatile String lastSynchronizedHash;
+
+    /**
+     * Runs the migrate-and-backup pass, unless the files are byte-for-byte what the last pass left.
+     * Synchronized because reloads may run on different async tasks.
+     */
+    public static synchronized void synchronize(ZTimerPlugin plugin) {
+        ConfigSynchronizer synchronizer = new ConfigSynchronizer(plugin);
+        String hash = synchronizer.currentHash();
+        if (hash != null && hash.equals(lastSynchronizedHash)) {
+            return;
+        }
+        if (synchronizer.synchronizeInternal()) {
+            lastSynchronizedHash = synchronizer.currentHash();
+        }
+    }
+
+    /**
+     * @return the hash recorded by the last successful pass, or null before the first one
+     */
+    static String getLastSynchronizedHash() {
+        return lastSynchronizedHash;
+    }
+
+    private String currentHash() {
+        return ContentHash.of(configFile, messagesFile);
     }
 
-    private void synchronizeInternal() {
+    /**
+     * @return false if the pass failed and should run again on the next reload
+     */
+    private boolean synchronizeInternal() {
         try {
             if (!dataFolder.exists() && !dataFolder.mkdirs()) {
                 plugin.getLogger().warning("Could not create plugin data folder for config synchronization.");
-                return;
+                return false;
             }
 
             if (!configFile.exists()) {
-                return;
+                return true;
             }
 
             YamlConfiguration currentConfig = loadFileConfiguration(configFile);
@@ -60,7 +88,7 @@ final class ConfigSynchronizer {
             if (currentVersion > CURRENT_CONFIG_VERSION) {
                 plugin.getLogger().warning("Config version " + currentVersion
                         + " is newer than this build supports. Skipping automatic config migration.");
-                return;
+                return true;
             }
 
             YamlConfiguration defaultConfig = loadBundledConfiguration("config.yml");
@@ -75,7 +103,7 @@ final class ConfigSynchronizer {
             FileWritePlan configPlan = createWritePlan(configFile, finalConfig);
             FileWritePlan messagesPlan = createWritePlan(messagesFile, finalMessages);
             if (!configPlan.shouldWrite && !messagesPlan.shouldWrite) {
-                return;
+                return true;
             }
 
             String timestamp = LocalDateTime.now().format(BACKUP_STAMP);
@@ -111,9 +139,11 @@ final class ConfigSynchronizer {
                     plugin.getLogger().info("Created messages.yml from bundled defaults.");
                 }
             }
+            return true;
         } catch (Exception ex) {
             plugin.getLogger().severe("Failed to synchronize config files: " + ex.getMessage());
             ex.printStackTrace();
+            return false;
         }
     }
 
@@ -0,0 +1,147 @@
+package com.zenologia.ztimer.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+
+import com.zenologia.ztimer.ZTimerPlugin;
+
+/**
+ * Watches the plugin data folder and reloads when config.yml or messages.yml really changed.
+ * Editors often write a file several times in a row, so a reload only starts once no write
+ * has been seen for the debounce window, only if the contents hash differs from what the
+ * last reload synchronized, and only if both files parse.
+ */
+final class ConfigWatcher {
+
+    private final ZTimerPlugin plugin;
+    private final ConfigManager configManager;
+    private final File configFile;
+    private final File messagesFile;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    ConfigWatcher(ZTimerPlugin plugin, ConfigManager configManager, File configFile, File messagesFile) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.configFile = configFile;
+        this.messagesFile = messagesFile;
+    }
+
+    synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            plugin.getDataFolder().toPath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Could not watch config files for changes: " + ex.getMessage());
+            closeQuietly(watchService);
+            watchService = null;
+            return;
+        }
+
+        WatchService service = watchService;
+        thread = new Thread(() -> run(service), "ZTimer-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        // Closing the service wakes the thread with ClosedWatchServiceException.
+        closeQuietly(watchService);
+        thread.interrupt();
+        watchService = null;
+        thread = null;
+    }
+
+    private void run(WatchService service) {
+        long reloadAt = 0L;
+        try {
+            while (true) {
+                WatchKey key;
+                if (reloadAt == 0L) {
+                    key = service.take();
+                } else {
+                    long wait = reloadAt - System.currentTimeMillis();
+                    key = wait > 0 ? service.poll(wait, TimeUnit.MILLISECONDS) : null;
+                }
+
+                if (key == null) {
+                    reloadAt = 0L;
+                    reloadIfChanged();
+                    continue;
+                }
+
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || (context instanceof Path && isWatched((Path) context))) {
+                        relevant = true;
+                    }
+                }
+                key.reset();
+
+                if (relevant) {
+                    // Every write pushes the reload back, so a burst ends in a single reload.
+                    reloadAt = System.currentTimeMillis() + configManager.getConfigWatcherDebounceMs();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // Stopped.
+        }
+    }
+
+    private boolean isWatched(Path name) {
+        String fileName = name.toString();
+        return fileName.equals(configFile.getName()) || fileName.equals(messagesFile.getName());
+    }
+
+    private void reloadIfChanged() {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        String hash = ContentHash.of(configFile, messagesFile);
+        if (hash == null || hash.equals(ConfigSynchronizer.getLastSynchronizedHash())) {
+            return;
+        }
+        // Editors may leave a file half-written or mid-edit; only a file that parses is reloaded.
+        try {
+            ConfigManager.parse(configFile);
+            if (messagesFile.exists()) {
+                ConfigManager.parse(messagesFile);
+            }
+        } catch (IOException | InvalidConfigurationException ex) {
+            plugin.getLogger().warning("Detected changes to config files, but they do not parse; keeping the current configuration: "
+                    + ex.getMessage());
+            return;
+        }
+        plugin.getLogger().info("Detected changes to config files, reloading.");
+        configManager.reloadAsync();
+    }
+
+    private static void closeQuietly(WatchService service) {
+        if (service == null) {
+            return;
+        }
+        try {
+            service.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.zenologia.ztimer.config;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * A location from the config with its world kept by name, so it can be parsed off the main thread.
+ * The world is looked up when the location is needed.
+ */
+public final class ConfiguredLocation {
+
+    private final String worldName;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float yaw;
+    private final float pitch;
+
+    ConfiguredLocation(String worldName, double x, double y, double z, float yaw, float pitch) {
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * Main thread only.
+     *
+     * @return a new Location, or null if the world is not loaded
+     */
+    public Location toLocation() {
+        World world = Bukkit.getWorld(worldName);
+        return world == null ? null : new Location(world, x, y, z, yaw, pitch);
+    }
+}
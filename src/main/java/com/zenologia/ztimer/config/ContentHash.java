@@ -0,0 +1,52 @@
+package com.zenologia.ztimer.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 over the bytes of a fixed set of files, used to tell real edits from no-op writes.
+ */
+final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * @return the hex digest, or null if a file could not be read
+     */
+    static String of(File... files) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            return null;
+        }
+
+        for (File file : files) {
+            // Missing and empty files must hash differently.
+            if (!file.exists()) {
+                digest.update((byte) 0);
+                continue;
+            }
+            try {
+                byte[] bytes = Files.readAllBytes(file.toPath());
+                digest.update((byte) 1);
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
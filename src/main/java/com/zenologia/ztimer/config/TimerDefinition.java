@@ -0,0 +1,85 @@
+package com.zenologia.ztimer.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.zenologia.ztimer.timer.TimerHandle;
+import com.zenologia.ztimer.util.MessageTemplate;
+
+/**
+ * Everything the config says about one timer, resolved once per reload.
+ * Instances are immutable; a reload replaces them rather than changing them.
+ */
+public final class TimerDefinition {
+
+    private final TimerHandle timer;
+    private final ConfiguredLocation exitLocation;
+    private final int topN;
+    private final List<String> relogCommands;
+    private final List<String> logoutCommands;
+    private final List<MessageTemplate> relogCommandTemplates;
+    private final List<MessageTemplate> logoutCommandTemplates;
+
+    TimerDefinition(TimerHandle timer, ConfiguredLocation exitLocation, int topN, List<String> relogCommands, List<String> logoutCommands) {
+        this.timer = timer;
+        this.exitLocation = exitLocation;
+        this.topN = topN;
+        this.relogCommands = Collections.unmodifiableList(relogCommands);
+        this.logoutCommands = Collections.unmodifiableList(logoutCommands);
+        this.relogCommandTemplates = compileCommands(relogCommands);
+        this.logoutCommandTemplates = compileCommands(logoutCommands);
+    }
+
+    /**
+     * Compiles console commands with the %player% and %player_uuid% placeholders; blank commands are dropped.
+     * Render with the player's name, then their UUID.
+     */
+    public static List<MessageTemplate> compileCommands(List<String> commands) {
+        if (commands == null || commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<MessageTemplate> templates = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            if (command != null && !command.trim().isEmpty()) {
+                templates.add(MessageTemplate.compile(command, "player", "player_uuid"));
+            }
+        }
+        return Collections.unmodifiableList(templates);
+    }
+
+    public TimerHandle getTimer() {
+        return timer;
+    }
+
+    public String getId() {
+        return timer.getId();
+    }
+
+    /**
+     * @return the configured exit, or null if none is configured
+     */
+    public ConfiguredLocation getExitLocation() {
+        return exitLocation;
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    public List<String> getRelogCommands() {
+        return relogCommands;
+    }
+
+    public List<String> getLogoutCommands() {
+        return logoutCommands;
+    }
+
+    public List<MessageTemplate> getRelogCommandTemplates() {
+        return relogCommandTemplates;
+    }
+
+    public List<MessageTemplate> getLogoutCommandTemplates() {
+        return logoutCommandTemplates;
+    }
+}
@@ -0,0 +1,197 @@
+package com.zenologia.ztimer.db;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.zenologia.ztimer.ZTimerPlugin;
+import com.zenologia.ztimer.config.ConfigManager;
+
+/**
+ * Non-blocking facade over Storage backed by a bounded executor owned by the plugin,
+ * so storage work never competes with other plugins on Bukkit's shared async pool.
+ * Pool size defaults to what the backend can actually run in parallel.
+ */
+public class AsyncStorage {
+
+    private final ZTimerPlugin plugin;
+    private final Storage storage;
+    private final ThreadPoolExecutor executor;
+
+    public AsyncStorage(ZTimerPlugin plugin, Storage storage, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.storage = storage;
+
+        int configuredThreads = configManager.getRawConfig().getInt("storage.executor.threads", 0);
+        int threads = configuredThreads > 0 ? configuredThreads : storage.getDefaultExecutorThreads();
+        int queueSize = Math.max(1, configManager.getRawConfig().getInt("storage.executor.queue_size", 1000));
+        String policyName = configManager.getRawConfig().getString("storage.executor.rejection_policy", "abort");
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new StorageThreadFactory(), rejectionHandler(policyName));
+
+        storage.setAsyncStorage(this);
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public CompletableFuture<Long> getBestTime(UUID playerUuid, String timerId) {
+        return submit(() -> storage.getBestTime(playerUuid, timerId));
+    }
+
+    public CompletableFuture<Map<String, Long>> getBestTimes(UUID playerUuid) {
+        return submit(() -> storage.getBestTimes(playerUuid));
+    }
+
+    public CompletableFuture<Void> updateBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) {
+        return run(() -> storage.updateBestTime(playerUuid, playerName, timerId, bestMillis, nowMillis));
+    }
+
+    public CompletableFuture<Boolean> submitBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) {
+        return submit(() -> storage.submitBestTime(playerUuid, playerName, timerId, bestMillis, nowMillis));
+    }
+
+    public CompletableFuture<List<BestTimeUpdate>> submitBestTimes(List<BestTimeUpdate> updates) {
+        return submit(() -> storage.submitBestTimes(updates));
+    }
+
+    public CompletableFuture<Void> resetBestTime(UUID playerUuid, String timerId) {
+        return run(() -> storage.resetBestTime(playerUuid, timerId));
+    }
+
+    public CompletableFuture<Void> resetBestTimeForTimer(String timerId) {
+        return run(() -> storage.resetBestTimeForTimer(timerId));
+    }
+
+    public CompletableFuture<List<LeaderboardEntry>> getTopN(String timerId, int n) {
+        return submit(() -> storage.getTopN(timerId, n));
+    }
+
+    public CompletableFuture<List<LeaderboardEntry>> getPage(String timerId, LeaderboardEntry after, int limit) {
+        return submit(() -> storage.getPage(timerId, after, limit));
+    }
+
+    public CompletableFuture<Map<UUID, Long>> getAllBestTimes(String timerId) {
+        return submit(() -> storage.getAllBestTimes(timerId));
+    }
+
+    public CompletableFuture<Void> updatePlayerName(UUID playerUuid, String playerName) {
+        return run(() -> storage.updatePlayerName(playerUuid, playerName));
+    }
+
+    /**
+     * Runs arbitrary storage-bound work on the storage executor.
+     */
+    public <T> CompletableFuture<T> submit(StorageCall<T> call) {
+        StorageTask<T> task = new StorageTask<>(call);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            task.future.completeExceptionally(ex);
+        }
+        return task.future;
+    }
+
+    public CompletableFuture<Void> run(StorageAction action) {
+        return submit(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting work and waits for queued tasks so nothing is lost before Storage.shutdown().
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Storage executor did not finish within 10 seconds; "
+                        + executor.getQueue().size() + " task(s) dropped.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Every policy fails the returned future instead of running the task on the submitting thread,
+     * which may be the main thread; callers log the failure and fall back to cached or default values.
+     */
+    private RejectedExecutionHandler rejectionHandler(String policyName) {
+        String policy = policyName == null ? "abort" : policyName.toLowerCase(Locale.ROOT);
+        switch (policy) {
+            case "abort":
+                return new ThreadPoolExecutor.AbortPolicy();
+            case "discard_oldest":
+                return (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Storage executor is shut down.");
+                    }
+                    Runnable oldest = pool.getQueue().poll();
+                    if (oldest instanceof StorageTask) {
+                        ((StorageTask<?>) oldest).future.completeExceptionally(
+                                new RejectedExecutionException("Dropped by storage executor (queue full)."));
+                    }
+                    pool.execute(task);
+                };
+            default:
+                plugin.getLogger().warning("Unknown storage.executor.rejection_policy '" + policyName + "'; using abort.");
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    @FunctionalInterface
+    public interface StorageCall<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface StorageAction {
+        void run() throws Exception;
+    }
+
+    private static final class StorageTask<T> implements Runnable {
+
+        private final StorageCall<T> call;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private StorageTask(StorageCall<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(call.call());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private static final class StorageThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ZTimer-Storage-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.zenologia.ztimer.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Per-timer ordered index of (best_millis, uuid) for the file-backed storages.
+ * A timer loaded from an already sorted list keeps that list as its backing structure
+ * until its first change, so loading stays linear; the change moves it into a TreeSet.
+ * Not thread-safe; callers guard it with their own monitor.
+ */
+final class BestTimeIndex {
+
+    private final Map<String, NavigableSet<Entry>> byTimer = new HashMap<>();
+    // Timers loaded by putSorted() and not changed since; never also present in byTimer.
+    private final Map<String, List<Entry>> sortedByTimer = new HashMap<>();
+
+    /**
+     * Records a new best time, replacing the player's previous one if known.
+     */
+    void put(String timerId, UUID playerUuid, Long previousMillis, long bestMillis) {
+        NavigableSet<Entry> entries = mutable(timerId);
+        if (previousMillis != null) {
+            entries.remove(new Entry(previousMillis, playerUuid));
+        }
+        entries.add(new Entry(bestMillis, playerUuid));
+    }
+
+    /**
+     * Replaces the timer's entries with a list the caller has already sorted, fastest first,
+     * without duplicates. The list is kept as is, so the caller must not change it afterwards.
+     */
+    void putSorted(String timerId, List<Entry> sorted) {
+        byTimer.remove(timerId);
+        if (sorted.isEmpty()) {
+            sortedByTimer.remove(timerId);
+        } else {
+            sortedByTimer.put(timerId, sorted);
+        }
+    }
+
+    void remove(String timerId, UUID playerUuid, long bestMillis) {
+        if (!byTimer.containsKey(timerId) && !sortedByTimer.containsKey(timerId)) {
+            return;
+        }
+        NavigableSet<Entry> entries = mutable(timerId);
+        entries.remove(new Entry(bestMillis, playerUuid));
+        if (entries.isEmpty()) {
+            byTimer.remove(timerId);
+        }
+    }
+
+    /**
+     * Drops every entry for the timer and returns them, fastest first.
+     */
+    Collection<Entry> removeTimer(String timerId) {
+        NavigableSet<Entry> removed = byTimer.remove(timerId);
+        if (removed != null) {
+            return removed;
+        }
+        List<Entry> sorted = sortedByTimer.remove(timerId);
+        return sorted == null ? Collections.emptyList() : sorted;
+    }
+
+    List<Entry> head(String timerId, int n) {
+        return page(timerId, null, n);
+    }
+
+    /**
+     * Up to n entries strictly after the cursor, or from the start when the cursor is null.
+     */
+    List<Entry> page(String timerId, Entry after, int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        List<Entry> sorted = sortedByTimer.get(timerId);
+        if (sorted != null) {
+            int start = 0;
+            if (after != null) {
+                int found = Collections.binarySearch(sorted, after);
+                start = found >= 0 ? found + 1 : -found - 1;
+            }
+            return new ArrayList<>(sorted.subList(start, (int) Math.min(sorted.size(), (long) start + n)));
+        }
+
+        NavigableSet<Entry> entries = byTimer.get(timerId);
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        // Sized before narrowing: size() on a tailSet view walks the whole view.
+        List<Entry> result = new ArrayList<>(Math.min(n, entries.size()));
+        if (after != null) {
+            entries = entries.tailSet(after, false);
+        }
+
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext() && result.size() < n) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    /**
+     * Every entry for the timer, fastest first. The view is live; callers must not hold it.
+     */
+    Iterable<Entry> all(String timerId) {
+        List<Entry> sorted = sortedByTimer.get(timerId);
+        if (sorted != null) {
+            return Collections.unmodifiableList(sorted);
+        }
+        NavigableSet<Entry> entries = byTimer.get(timerId);
+        return entries == null ? Collections.emptyList() : entries;
+    }
+
+    int size(String timerId) {
+        List<Entry> sorted = sortedByTimer.get(timerId);
+        if (sorted != null) {
+            return sorted.size();
+        }
+        NavigableSet<Entry> entries = byTimer.get(timerId);
+        return entries == null ? 0 : entries.size();
+    }
+
+    void clear() {
+        byTimer.clear();
+        sortedByTimer.clear();
+    }
+
+    /**
+     * @return the timer's TreeSet, moving a loaded sorted list into one first
+     */
+    private NavigableSet<Entry> mutable(String timerId) {
+        NavigableSet<Entry> entries = byTimer.get(timerId);
+        if (entries != null) {
+            return entries;
+        }
+        entries = new TreeSet<>();
+        List<Entry> sorted = sortedByTimer.remove(timerId);
+        if (sorted != null) {
+            entries.addAll(sorted);
+        }
+        byTimer.put(timerId, entries);
+        return entries;
+    }
+
+    static final class Entry implements Comparable<Entry> {
+
+        private final long bestMillis;
+        private final UUID playerUuid;
+
+        Entry(long bestMillis, UUID playerUuid) {
+            this.bestMillis = bestMillis;
+            this.playerUuid = playerUuid;
+        }
+
+        long getBestMillis() {
+            return bestMillis;
+        }
+
+        UUID getPlayerUuid() {
+            return playerUuid;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(bestMillis, other.bestMillis);
+            return byTime != 0 ? byTime : playerUuid.compareTo(other.playerUuid);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry that = (Entry) o;
+            return bestMillis == that.bestMillis && playerUuid.equals(that.playerUuid);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(bestMillis) + playerUuid.hashCode();
+        }
+    }
+}
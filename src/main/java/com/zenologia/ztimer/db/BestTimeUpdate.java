@@ -0,0 +1,44 @@
+package com.zenologia.ztimer.db;
+
+import java.util.UUID;
+
+/**
+ * A candidate best time waiting to be written. Storage keeps the lower of this
+ * value and whatever is already stored for the same player and timer.
+ */
+public class BestTimeUpdate {
+
+    private final UUID playerUuid;
+    private final String playerName;
+    private final String timerId;
+    private final long bestMillis;
+    private final long nowMillis;
+
+    public BestTimeUpdate(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) {
+        this.playerUuid = playerUuid;
+        this.playerName = playerName;
+        this.timerId = timerId;
+        this.bestMillis = bestMillis;
+        this.nowMillis = nowMillis;
+    }
+
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getTimerId() {
+        return timerId;
+    }
+
+    public long getBestMillis() {
+        return bestMillis;
+    }
+
+    public long getNowMillis() {
+        return nowMillis;
+    }
+}
@@ -0,0 +1,182 @@
+package com.zenologia.ztimer.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.zenologia.ztimer.ZTimerPlugin;
+import com.zenologia.ztimer.config.ConfigManager;
+
+/**
+ * Write-behind buffer between TimerManager and Storage.
+ * Pending best times are merged per player+timer (lowest time wins) and written
+ * as a single batch once either the size threshold or the flush interval is reached.
+ * The flush listener only receives updates that actually changed a stored best time.
+ */
+public class BestTimeWriteQueue {
+
+    private final ZTimerPlugin plugin;
+    private final AsyncStorage asyncStorage;
+    private final ConfigManager configManager;
+    private final Consumer<List<BestTimeUpdate>> flushListener;
+    private final int batchSize;
+    private final long flushIntervalTicks;
+
+    private final Map<String, BestTimeUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+
+    private BukkitTask flushTask;
+
+    public BestTimeWriteQueue(ZTimerPlugin plugin,
+                              AsyncStorage asyncStorage,
+                              ConfigManager configManager,
+                              Consumer<List<BestTimeUpdate>> flushListener) {
+        this.plugin = plugin;
+        this.asyncStorage = asyncStorage;
+        this.configManager = configManager;
+        this.flushListener = flushListener;
+        this.batchSize = Math.max(1, configManager.getWriteBehindBatchSize());
+        this.flushIntervalTicks = Math.max(1L, (configManager.getWriteBehindFlushIntervalMs() + 49L) / 50L);
+    }
+
+    public void start() {
+        if (flushTask != null) {
+            return;
+        }
+        // The timer only hands off to the storage executor; the write itself never runs on a Bukkit thread.
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (!pending.isEmpty()) {
+                // A rejected flush leaves the updates pending; the next interval retries them.
+                asyncStorage.run(this::flush).whenComplete((ignored, ex) -> {
+                    if (ex != null) {
+                        logFlushError("Could not schedule best time flush", ex);
+                    }
+                });
+            }
+        }, flushIntervalTicks, flushIntervalTicks);
+    }
+
+    public void submit(BestTimeUpdate update) {
+        pending.merge(key(update.getPlayerUuid(), update.getTimerId()), update, BestTimeWriteQueue::lower);
+
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            asyncStorage.run(() -> {
+                flushScheduled.set(false);
+                flush();
+            }).whenComplete((ignored, ex) -> {
+                if (ex != null) {
+                    flushScheduled.set(false);
+                    logFlushError("Could not schedule best time flush", ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * Resets a stored best time in order with flushes. Runs under the flush lock, so a batch a
+     * running flush already drained is written before the reset, and a failed batch put back
+     * for retry is dropped along with the rest of the player's pending write.
+     * Blocks; run it on the storage executor.
+     */
+    public void reset(UUID playerUuid, String timerId) throws Exception {
+        synchronized (flushLock) {
+            pending.remove(key(playerUuid, timerId));
+            asyncStorage.getStorage().resetBestTime(playerUuid, timerId);
+        }
+    }
+
+    /**
+     * Same as reset, for every player on the timer.
+     */
+    public void resetTimer(String timerId) throws Exception {
+        synchronized (flushLock) {
+            pending.values().removeIf(update -> update.getTimerId().equals(timerId));
+            asyncStorage.getStorage().resetBestTimeForTimer(timerId);
+        }
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<BestTimeUpdate> batch = new ArrayList<>(pending.size());
+            for (String key : pending.keySet()) {
+                BestTimeUpdate update = pending.remove(key);
+                if (update != null) {
+                    batch.add(update);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<BestTimeUpdate> improved;
+            try {
+                improved = asyncStorage.getStorage().submitBestTimes(batch);
+            } catch (Exception ex) {
+                // Put the batch back so the next flush retries it; newer submissions still win if lower.
+                for (BestTimeUpdate update : batch) {
+                    pending.merge(key(update.getPlayerUuid(), update.getTimerId()), update, BestTimeWriteQueue::lower);
+                }
+                logFlushError("Error flushing " + batch.size() + " best time update(s)", ex);
+                return;
+            }
+
+            if (!improved.isEmpty()) {
+                flushListener.accept(improved);
+            }
+        }
+    }
+
+    /**
+     * Stops the timer and flushes on the calling thread, retrying once if the write fails.
+     * Updates that still could not be written are logged one by one, since nothing retries them later.
+     * Must run before AsyncStorage.shutdown().
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            flush();
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<BestTimeUpdate> lost = new ArrayList<>(pending.values());
+        pending.clear();
+        plugin.getLogger().severe("Could not write " + lost.size() + " pending best time(s) before shutdown; they are lost:");
+        for (BestTimeUpdate update : lost) {
+            plugin.getLogger().severe("  timer '" + update.getTimerId() + "', player " + update.getPlayerName()
+                    + " (" + update.getPlayerUuid() + "): " + update.getBestMillis() + " ms");
+        }
+    }
+
+    private void logFlushError(String message, Throwable ex) {
+        if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
+            plugin.getLogger().severe(message + ": " + ex.getMessage());
+            ex.printStackTrace();
+        }
+    }
+
+    private static BestTimeUpdate lower(BestTimeUpdate current, BestTimeUpdate candidate) {
+        return candidate.getBestMillis() < current.getBestMillis() ? candidate : current;
+    }
+
+    private static String key(UUID playerUuid, String timerId) {
+        return playerUuid.toString() + "|" + timerId;
+    }
+}
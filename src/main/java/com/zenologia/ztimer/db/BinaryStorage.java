@@ -0,0 +1,634 @@
+package com.zenologia.ztimer.db;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.zenologia.ztimer.ZTimerPlugin;
+import com.zenologia.ztimer.config.ConfigManager;
+
+/**
+ * Single-server storage that keeps fixed-size best-time records in a memory-mapped file.
+ *
+ * Layout of the data file: a 16-byte header (magic, version, slot high-water mark, order stamp)
+ * followed by 40-byte records of (uuid msb, uuid lsb, timer index, flags, best_millis, last_updated).
+ * Records are mapped in segments of SEGMENT_SLOTS, so the file is not limited to one 2GB mapping.
+ * A changed record is written to a fresh slot and the old slot freed afterwards, so a crash leaves
+ * either the old or the new record intact; a duplicate found on load keeps the newer one.
+ *
+ * Timer IDs live in a side file where the line number is the timer index, and player names
+ * in an append-only dictionary where the last line for a UUID wins. On a clean shutdown the
+ * leaderboard order is saved as slot lists in an order file and its stamp written to the header,
+ * so the next start loads the index without sorting. The stamp is cleared while running,
+ * so after a crash the index is rebuilt from the records.
+ */
+public class BinaryStorage extends Storage {
+
+    private static final int MAGIC = 0x5A544D52; // "ZTMR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 40;
+    private static final int INITIAL_SLOTS = 1024;
+    // 2^20 records (40MB) per mapped segment.
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_SHIFT;
+    private static final long MAX_SLOTS = Integer.MAX_VALUE;
+
+    private static final int HEADER_SLOT_COUNT = 8;
+    private static final int HEADER_ORDER_STAMP = 12;
+    private static final int ORDER_MAGIC = 0x5A544F52; // "ZTOR"
+
+    private static final int OFFSET_MSB = 0;
+    private static final int OFFSET_LSB = 8;
+    private static final int OFFSET_TIMER = 16;
+    private static final int OFFSET_FLAGS = 20;
+    private static final int OFFSET_BEST = 24;
+    private static final int OFFSET_UPDATED = 32;
+
+    private static final int FLAG_IN_USE = 1;
+
+    private File dataFile;
+    private File timersFile;
+    private File namesFile;
+    private File orderFile;
+
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int lastSegmentSlots;
+    private long capacitySlots;
+    private int slotCount;
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<UUID, Map<Integer, Integer>> slotsByPlayer = new HashMap<>();
+    private final List<String> timerIds = new ArrayList<>();
+    private final Map<String, Integer> timerIndexes = new HashMap<>();
+    private final Map<UUID, String> playerNames = new HashMap<>();
+    private final BestTimeIndex index = new BestTimeIndex();
+
+    private BufferedWriter timersWriter;
+    private BufferedWriter namesWriter;
+
+    public BinaryStorage(ZTimerPlugin plugin, ConfigManager configManager) {
+        super(plugin, configManager);
+    }
+
+    @Override
+    public synchronized void initialize() throws Exception {
+        String fileName = configManager.getRawConfig().getString("storage.binary.file", "ztimer-data.bin");
+        this.dataFile = new File(plugin.getDataFolder(), fileName);
+        File parent = dataFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        this.timersFile = new File(parent, fileName + ".timers");
+        this.namesFile = new File(parent, fileName + ".names");
+        this.orderFile = new File(parent, fileName + ".order");
+
+        loadTimerIds();
+        loadPlayerNames();
+
+        this.raf = new RandomAccessFile(dataFile, "rw");
+        this.channel = raf.getChannel();
+        boolean fresh = channel.size() < HEADER_SIZE;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+        if (fresh) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(HEADER_SLOT_COUNT, 0);
+            header.putInt(HEADER_ORDER_STAMP, 0);
+        } else {
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(dataFile.getName() + " is not a ZTimer binary storage file.");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported binary storage version " + header.getInt(4) + " in " + dataFile.getName() + ".");
+            }
+        }
+        this.slotCount = header.getInt(HEADER_SLOT_COUNT);
+        long existingSlots = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        if (slotCount < 0 || slotCount > existingSlots) {
+            throw new IOException(dataFile.getName() + " is truncated: header expects " + slotCount + " records.");
+        }
+        ensureCapacity(Math.max(INITIAL_SLOTS, existingSlots));
+
+        // The saved order only matches the records if nothing was written after it; clear the
+        // stamp before any write so a crash from here on forces a rebuild.
+        int orderStamp = header.getInt(HEADER_ORDER_STAMP);
+        header.putInt(HEADER_ORDER_STAMP, 0);
+        header.force();
+
+        int records = loadRecords();
+        if (orderStamp == 0 || !loadOrder(orderStamp, records)) {
+            rebuildIndex();
+        }
+
+        this.timersWriter = Files.newBufferedWriter(timersFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.namesWriter = Files.newBufferedWriter(namesFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Scans the records into slotsByPlayer, freeing unusable slots.
+     * Records are fixed-size, so loading is a scan of the mapping rather than a parse.
+     *
+     * @return how many records are in use
+     */
+    private int loadRecords() {
+        int records = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if ((readInt(slot, OFFSET_FLAGS) & FLAG_IN_USE) == 0) {
+                freeSlots.push(slot);
+                continue;
+            }
+
+            int timerIndex = readInt(slot, OFFSET_TIMER);
+            if (timerIndex < 0 || timerIndex >= timerIds.size()) {
+                plugin.getLogger().warning("Binary storage slot " + slot + " references unknown timer index " + timerIndex + "; freeing it.");
+                freeSlot(slot);
+                continue;
+            }
+
+            UUID uuid = new UUID(readLong(slot, OFFSET_MSB), readLong(slot, OFFSET_LSB));
+            Map<Integer, Integer> slots = slotsByPlayer.computeIfAbsent(uuid, k -> new HashMap<>());
+            Integer other = slots.put(timerIndex, slot);
+            if (other == null) {
+                records++;
+                continue;
+            }
+
+            // A crash between writing a changed record and freeing its old slot; keep the newer one.
+            long updated = readLong(slot, OFFSET_UPDATED);
+            long otherUpdated = readLong(other, OFFSET_UPDATED);
+            boolean keepOther = otherUpdated > updated
+                    || (otherUpdated == updated && readLong(other, OFFSET_BEST) <= readLong(slot, OFFSET_BEST));
+            if (keepOther) {
+                slots.put(timerIndex, other);
+                freeSlot(slot);
+            } else {
+                freeSlot(other);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Loads the leaderboard order saved by the last clean shutdown.
+     *
+     * @return false if the order file is missing or does not match the records
+     */
+    private boolean loadOrder(int stamp, int records) {
+        if (!orderFile.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(orderFile.toPath())))) {
+            if (in.readInt() != ORDER_MAGIC || in.readInt() != stamp) {
+                return false;
+            }
+            int timers = in.readInt();
+            int loaded = 0;
+            for (int t = 0; t < timers; t++) {
+                int timerIndex = in.readInt();
+                int count = in.readInt();
+                if (timerIndex < 0 || timerIndex >= timerIds.size() || count < 0 || count > records - loaded) {
+                    index.clear();
+                    return false;
+                }
+                List<BestTimeIndex.Entry> entries = new ArrayList<>(count);
+                BestTimeIndex.Entry previous = null;
+                for (int i = 0; i < count; i++) {
+                    int slot = in.readInt();
+                    if (slot < 0 || slot >= slotCount || (readInt(slot, OFFSET_FLAGS) & FLAG_IN_USE) == 0) {
+                        index.clear();
+                        return false;
+                    }
+                    UUID uuid = new UUID(readLong(slot, OFFSET_MSB), readLong(slot, OFFSET_LSB));
+                    Map<Integer, Integer> slots = slotsByPlayer.get(uuid);
+                    BestTimeIndex.Entry entry = new BestTimeIndex.Entry(readLong(slot, OFFSET_BEST), uuid);
+                    if (slots == null || !Integer.valueOf(slot).equals(slots.get(timerIndex))
+                            || (previous != null && previous.compareTo(entry) >= 0)) {
+                        index.clear();
+                        return false;
+                    }
+                    entries.add(entry);
+                    previous = entry;
+                }
+                index.putSorted(timerIds.get(timerIndex), entries);
+                loaded += count;
+            }
+            if (loaded != records) {
+                index.clear();
+                return false;
+            }
+            return true;
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Could not read " + orderFile.getName() + "; rebuilding the leaderboard index: " + ex.getMessage());
+            index.clear();
+            return false;
+        }
+    }
+
+    private void rebuildIndex() {
+        for (Map.Entry<UUID, Map<Integer, Integer>> player : slotsByPlayer.entrySet()) {
+            for (Map.Entry<Integer, Integer> slot : player.getValue().entrySet()) {
+                index.put(timerIds.get(slot.getKey()), player.getKey(), null, readLong(slot.getValue(), OFFSET_BEST));
+            }
+        }
+    }
+
+    /**
+     * Saves the leaderboard order as slot lists and stamps the header to match.
+     */
+    private void saveOrder() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+
+        int stamp = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+        File tempFile = new File(orderFile.getParentFile(), orderFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+            out.writeInt(ORDER_MAGIC);
+            out.writeInt(stamp);
+            List<Integer> timers = new ArrayList<>();
+            for (int timerIndex = 0; timerIndex < timerIds.size(); timerIndex++) {
+                if (timerIndexes.get(timerIds.get(timerIndex)) == timerIndex && index.all(timerIds.get(timerIndex)).iterator().hasNext()) {
+                    timers.add(timerIndex);
+                }
+            }
+            out.writeInt(timers.size());
+            for (int timerIndex : timers) {
+                String timerId = timerIds.get(timerIndex);
+                out.writeInt(timerIndex);
+                out.writeInt(index.size(timerId));
+                for (BestTimeIndex.Entry entry : index.all(timerId)) {
+                    out.writeInt(slotsByPlayer.get(entry.getPlayerUuid()).get(timerIndex));
+                }
+            }
+        }
+        Files.move(tempFile.toPath(), orderFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        header.putInt(HEADER_ORDER_STAMP, stamp);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (header != null) {
+            try {
+                saveOrder();
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Could not save the leaderboard order; it will be rebuilt on startup: " + ex.getMessage());
+            }
+        }
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            if (header != null) {
+                header.force();
+            }
+            if (timersWriter != null) {
+                timersWriter.close();
+            }
+            if (namesWriter != null) {
+                namesWriter.close();
+            }
+            if (raf != null) {
+                raf.close();
+            }
+        } catch (IOException ex) {
+            plugin.getLogger().severe("Failed to close binary storage: " + ex.getMessage());
+        }
+        header = null;
+        segments.clear();
+        timersWriter = null;
+        namesWriter = null;
+        raf = null;
+        channel = null;
+    }
+
+    @Override
+    public synchronized Long getBestTime(UUID playerUuid, String timerId) {
+        int slot = findSlot(playerUuid, timerId);
+        return slot < 0 ? null : readLong(slot, OFFSET_BEST);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getBestTimes(UUID playerUuid) {
+        Map<String, Long> result = new HashMap<>();
+        Map<Integer, Integer> slots = slotsByPlayer.get(playerUuid);
+        if (slots == null) {
+            return result;
+        }
+        for (Map.Entry<Integer, Integer> entry : slots.entrySet()) {
+            result.put(timerIds.get(entry.getKey()), readLong(entry.getValue(), OFFSET_BEST));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Map<UUID, Long> getAllBestTimes(String timerId) {
+        Map<UUID, Long> result = new HashMap<>();
+        for (BestTimeIndex.Entry entry : index.all(timerId)) {
+            result.put(entry.getPlayerUuid(), entry.getBestMillis());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void updateBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
+        writeBestTime(playerUuid, playerName, timerId, bestMillis, nowMillis);
+    }
+
+    @Override
+    public synchronized boolean submitBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
+        Long currentBest = getBestTime(playerUuid, timerId);
+        if (currentBest != null && currentBest <= bestMillis) {
+            return false;
+        }
+        writeBestTime(playerUuid, playerName, timerId, bestMillis, nowMillis);
+        return true;
+    }
+
+    @Override
+    public synchronized List<BestTimeUpdate> submitBestTimes(List<BestTimeUpdate> updates) throws Exception {
+        List<BestTimeUpdate> improved = new ArrayList<>();
+        for (BestTimeUpdate update : updates) {
+            if (submitBestTime(update.getPlayerUuid(), update.getPlayerName(), update.getTimerId(),
+                    update.getBestMillis(), update.getNowMillis())) {
+                improved.add(update);
+            }
+        }
+        return improved;
+    }
+
+    @Override
+    public synchronized void resetBestTime(UUID playerUuid, String timerId) {
+        Integer timerIndex = timerIndexes.get(timerId);
+        Map<Integer, Integer> slots = slotsByPlayer.get(playerUuid);
+        if (timerIndex == null || slots == null) {
+            return;
+        }
+
+        Integer slot = slots.remove(timerIndex);
+        if (slot == null) {
+            return;
+        }
+        if (slots.isEmpty()) {
+            slotsByPlayer.remove(playerUuid);
+        }
+
+        index.remove(timerId, playerUuid, readLong(slot, OFFSET_BEST));
+        freeSlot(slot);
+    }
+
+    @Override
+    public synchronized void resetBestTimeForTimer(String timerId) {
+        Integer timerIndex = timerIndexes.get(timerId);
+        if (timerIndex == null) {
+            return;
+        }
+
+        for (BestTimeIndex.Entry entry : index.removeTimer(timerId)) {
+            Map<Integer, Integer> slots = slotsByPlayer.get(entry.getPlayerUuid());
+            if (slots == null) {
+                continue;
+            }
+            Integer slot = slots.remove(timerIndex);
+            if (slot != null) {
+                freeSlot(slot);
+            }
+            if (slots.isEmpty()) {
+                slotsByPlayer.remove(entry.getPlayerUuid());
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<LeaderboardEntry> getTopN(String timerId, int n) {
+        return toLeaderboardEntries(index.head(timerId, n));
+    }
+
+    @Override
+    public synchronized List<LeaderboardEntry> getPage(String timerId, LeaderboardEntry after, int limit) {
+        return toLeaderboardEntries(index.page(timerId, after == null ? null : new BestTimeIndex.Entry(after.getBestMillis(), after.getPlayerUuid()), limit));
+    }
+
+    private List<LeaderboardEntry> toLeaderboardEntries(List<BestTimeIndex.Entry> indexEntries) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (BestTimeIndex.Entry entry : indexEntries) {
+            String playerName = playerNames.getOrDefault(entry.getPlayerUuid(), entry.getPlayerUuid().toString());
+            entries.add(new LeaderboardEntry(entry.getPlayerUuid(), playerName, entry.getBestMillis()));
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized void updatePlayerName(UUID playerUuid, String playerName) throws Exception {
+        // Like the SQL backends, only players with stored times are tracked.
+        if (!slotsByPlayer.containsKey(playerUuid)) {
+            return;
+        }
+        rememberPlayerName(playerUuid, playerName);
+    }
+
+    private void writeBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws IOException {
+        int timerIndex = timerIndex(timerId);
+        Map<Integer, Integer> slots = slotsByPlayer.computeIfAbsent(playerUuid, k -> new HashMap<>());
+        Integer oldSlot = slots.get(timerIndex);
+        Long previous = oldSlot == null ? null : readLong(oldSlot, OFFSET_BEST);
+
+        // Never overwrite a live record: a torn write would corrupt the only copy.
+        int slot = allocateSlot();
+        writeLong(slot, OFFSET_MSB, playerUuid.getMostSignificantBits());
+        writeLong(slot, OFFSET_LSB, playerUuid.getLeastSignificantBits());
+        writeInt(slot, OFFSET_TIMER, timerIndex);
+        writeLong(slot, OFFSET_BEST, bestMillis);
+        writeLong(slot, OFFSET_UPDATED, nowMillis);
+        // Flag last, so a torn write never exposes a half-filled record as in use.
+        writeInt(slot, OFFSET_FLAGS, FLAG_IN_USE);
+        slots.put(timerIndex, slot);
+        if (oldSlot != null) {
+            freeSlot(oldSlot);
+        }
+
+        index.put(timerId, playerUuid, previous, bestMillis);
+        rememberPlayerName(playerUuid, playerName);
+    }
+
+    private int findSlot(UUID playerUuid, String timerId) {
+        Integer timerIndex = timerIndexes.get(timerId);
+        Map<Integer, Integer> slots = slotsByPlayer.get(playerUuid);
+        if (timerIndex == null || slots == null) {
+            return -1;
+        }
+        Integer slot = slots.get(timerIndex);
+        return slot == null ? -1 : slot;
+    }
+
+    private int allocateSlot() throws IOException {
+        Integer free = freeSlots.poll();
+        if (free != null) {
+            return free;
+        }
+
+        ensureCapacity((long) slotCount + 1);
+        int slot = slotCount++;
+        header.putInt(HEADER_SLOT_COUNT, slotCount);
+        return slot;
+    }
+
+    private void freeSlot(int slot) {
+        writeInt(slot, OFFSET_FLAGS, 0);
+        freeSlots.push(slot);
+    }
+
+    private int timerIndex(String timerId) throws IOException {
+        Integer existing = timerIndexes.get(timerId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int timerIndex = timerIds.size();
+        timersWriter.write(timerId);
+        timersWriter.newLine();
+        timersWriter.flush();
+        timerIds.add(timerId);
+        timerIndexes.put(timerId, timerIndex);
+        return timerIndex;
+    }
+
+    private void rememberPlayerName(UUID playerUuid, String playerName) throws IOException {
+        if (playerName == null || playerName.equals(playerNames.get(playerUuid))) {
+            return;
+        }
+        playerNames.put(playerUuid, playerName);
+        namesWriter.write(playerUuid + "\t" + playerName);
+        namesWriter.newLine();
+        namesWriter.flush();
+    }
+
+    /**
+     * Grows the mapping to hold at least the given number of slots: the last segment doubles
+     * until it is full, then whole segments are added.
+     */
+    private void ensureCapacity(long slots) throws IOException {
+        if (slots > MAX_SLOTS) {
+            throw new IOException(dataFile.getName() + " is full: binary storage holds at most " + MAX_SLOTS + " records.");
+        }
+        while (capacitySlots < slots) {
+            int last = segments.size() - 1;
+            if (last >= 0 && lastSegmentSlots < SEGMENT_SLOTS) {
+                int grown = (int) Math.min(SEGMENT_SLOTS, Math.max((long) lastSegmentSlots * 2, slots - ((long) last << SEGMENT_SHIFT)));
+                segments.set(last, mapSegment(last, grown));
+                capacitySlots += grown - lastSegmentSlots;
+                lastSegmentSlots = grown;
+            } else {
+                int size = segments.isEmpty() ? (int) Math.min(SEGMENT_SLOTS, Math.max(INITIAL_SLOTS, slots)) : SEGMENT_SLOTS;
+                segments.add(mapSegment(segments.size(), size));
+                capacitySlots += size;
+                lastSegmentSlots = size;
+            }
+        }
+    }
+
+    private MappedByteBuffer mapSegment(int segment, int slots) throws IOException {
+        // Mapping past the end of the file grows it; a replaced mapping is released by the GC.
+        long position = HEADER_SIZE + ((long) segment << SEGMENT_SHIFT) * RECORD_SIZE;
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, (long) slots * RECORD_SIZE);
+    }
+
+    private void loadTimerIds() throws IOException {
+        timerIds.clear();
+        timerIndexes.clear();
+        if (!timersFile.exists()) {
+            return;
+        }
+
+        for (String line : Files.readAllLines(timersFile.toPath(), StandardCharsets.UTF_8)) {
+            // Blank lines still occupy an index so later timers keep their positions.
+            timerIndexes.putIfAbsent(line, timerIds.size());
+            timerIds.add(line);
+        }
+    }
+
+    private void loadPlayerNames() throws IOException {
+        playerNames.clear();
+        if (!namesFile.exists()) {
+            return;
+        }
+
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(namesFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    continue;
+                }
+                try {
+                    playerNames.put(UUID.fromString(line.substring(0, tab)), line.substring(tab + 1));
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        }
+
+        // The dictionary is append-only; rewrite it once superseded entries dominate.
+        if (lines > INITIAL_SLOTS && lines > playerNames.size() * 2) {
+            File tempFile = new File(namesFile.getParentFile(), namesFile.getName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<UUID, String> entry : playerNames.entrySet()) {
+                    writer.write(entry.getKey() + "\t" + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile.toPath(), namesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private int readInt(int slot, int field) {
+        return segments.get(slot >>> SEGMENT_SHIFT).getInt(offset(slot) + field);
+    }
+
+    private long readLong(int slot, int field) {
+        return segments.get(slot >>> SEGMENT_SHIFT).getLong(offset(slot) + field);
+    }
+
+    private void writeInt(int slot, int field, int value) {
+        segments.get(slot >>> SEGMENT_SHIFT).putInt(offset(slot) + field, value);
+    }
+
+    private void writeLong(int slot, int field, long value) {
+        segments.get(slot >>> SEGMENT_SHIFT).putLong(offset(slot) + field, value);
+    }
+
+    /**
+     * @return the record's byte offset within its segment
+     */
+    private static int offset(int slot) {
+        return (slot & (SEGMENT_SLOTS - 1)) * RECORD_SIZE;
+    }
+}
@@ -7,11 +7,22 @@ import com.zenologia.ztimer.config.ConfigManager;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class MysqlStorage extends Storage {
 
+    // Assignments run left to right, so best_millis must be updated last for the IF() checks to see the old value.
+    private static final String SUBMIT_BEST_SQL = "INSERT INTO ztimer_best_times (player_uuid, player_name, timer_id, best_millis, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "player_name = IF(VALUES(best_millis) < best_millis, VALUES(player_name), player_name), " +
+            "last_updated = IF(VALUES(best_millis) < best_millis, VALUES(last_updated), last_updated), " +
+            "best_millis = LEAST(best_millis, VALUES(best_millis))";
+
     private HikariDataSource dataSource;
 
     public MysqlStorage(ZTimerPlugin plugin, ConfigManager configManager) {
@@ -28,7 +39,7 @@ public class MysqlStorage extends Storage {
         boolean useSSL = configManager.getRawConfig().getBoolean("storage.mysql.useSSL", false);
 
         HikariConfig hikariConfig = new HikariConfig();
-        hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=" + useSSL + "&serverTimezone=UTC");
+        hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=" + useSSL + "&serverTimezone=UTC&rewriteBatchedStatements=true&useAffectedRows=true");
         hikariConfig.setUsername(user);
         hikariConfig.setPassword(password);
         hikariConfig.setMaximumPoolSize(10);
@@ -41,6 +52,11 @@ public class MysqlStorage extends Storage {
         }
     }
 
+    @Override
+    public int getDefaultExecutorThreads() {
+        return 4;
+    }
+
     @Override
     public void shutdown() {
         if (dataSource != null && !dataSource.isClosed()) {
@@ -64,6 +80,58 @@ public class MysqlStorage extends Storage {
         }
     }
 
+    @Override
+    public Map<String, Long> getBestTimes(UUID playerUuid) throws Exception {
+        String sql = "SELECT timer_id, best_millis FROM ztimer_best_times WHERE player_uuid = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, playerUuid.toString());
+            Map<String, Long> result = new HashMap<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.put(rs.getString("timer_id"), rs.getLong("best_millis"));
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public List<LeaderboardEntry> getPage(String timerId, LeaderboardEntry after, int limit) throws Exception {
+        String sql = "SELECT player_uuid, player_name, best_millis FROM ztimer_best_times WHERE timer_id = ? " +
+                (after == null ? "" : "AND (best_millis > ? OR (best_millis = ? AND player_uuid > ?)) ") +
+                "ORDER BY best_millis ASC, player_uuid ASC LIMIT ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            int index = bindPageCursor(ps, timerId, after);
+            ps.setInt(index, limit);
+            List<LeaderboardEntry> result = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = UUID.fromString(rs.getString("player_uuid"));
+                    result.add(new LeaderboardEntry(uuid, rs.getString("player_name"), rs.getLong("best_millis")));
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public Map<UUID, Long> getAllBestTimes(String timerId) throws Exception {
+        String sql = "SELECT player_uuid, best_millis FROM ztimer_best_times WHERE timer_id = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, timerId);
+            Map<UUID, Long> result = new HashMap<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.put(UUID.fromString(rs.getString("player_uuid")), rs.getLong("best_millis"));
+                }
+            }
+            return result;
+        }
+    }
+
     @Override
     public void updateBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
         String sql = "INSERT INTO ztimer_best_times (player_uuid, player_name, timer_id, best_millis, last_updated) " +
@@ -81,6 +149,92 @@ public class MysqlStorage extends Storage {
         }
     }
 
+    @Override
+    public boolean submitBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(SUBMIT_BEST_SQL)) {
+            ps.setString(1, playerUuid.toString());
+            ps.setString(2, playerName);
+            ps.setString(3, timerId);
+            ps.setLong(4, bestMillis);
+            ps.setTimestamp(5, new Timestamp(nowMillis));
+            // With useAffectedRows: 1 = inserted, 2 = updated, 0 = stored time was already faster.
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public List<BestTimeUpdate> submitBestTimes(List<BestTimeUpdate> updates) throws Exception {
+        if (updates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(SUBMIT_BEST_SQL)) {
+                // Rewritten batches report SUCCESS_NO_INFO for every row, so improvements are
+                // decided against the stored times, locked until the batch commits.
+                Map<String, Long> stored = lockBestTimes(connection, updates);
+                List<BestTimeUpdate> improved = new ArrayList<>();
+                for (BestTimeUpdate update : updates) {
+                    String key = update.getTimerId() + '\0' + update.getPlayerUuid();
+                    Long previous = stored.get(key);
+                    if (previous == null || update.getBestMillis() < previous) {
+                        improved.add(update);
+                        stored.put(key, update.getBestMillis());
+                    }
+                }
+                for (BestTimeUpdate update : updates) {
+                    ps.setString(1, update.getPlayerUuid().toString());
+                    ps.setString(2, update.getPlayerName());
+                    ps.setString(3, update.getTimerId());
+                    ps.setLong(4, update.getBestMillis());
+                    ps.setTimestamp(5, new Timestamp(update.getNowMillis()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                connection.commit();
+                return improved;
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Reads and row-locks the stored best times for a batch, one query per timer.
+     *
+     * @return best_millis keyed by timer id and player uuid joined with '\0'
+     */
+    private Map<String, Long> lockBestTimes(Connection connection, List<BestTimeUpdate> updates) throws SQLException {
+        Map<String, List<UUID>> playersByTimer = new HashMap<>();
+        for (BestTimeUpdate update : updates) {
+            playersByTimer.computeIfAbsent(update.getTimerId(), k -> new ArrayList<>()).add(update.getPlayerUuid());
+        }
+
+        Map<String, Long> stored = new HashMap<>();
+        for (Map.Entry<String, List<UUID>> timer : playersByTimer.entrySet()) {
+            List<UUID> players = timer.getValue();
+            String sql = "SELECT player_uuid, best_millis FROM ztimer_best_times WHERE timer_id = ? AND player_uuid IN (" +
+                    String.join(", ", Collections.nCopies(players.size(), "?")) + ") FOR UPDATE";
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, timer.getKey());
+                for (int i = 0; i < players.size(); i++) {
+                    ps.setString(i + 2, players.get(i).toString());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        stored.put(timer.getKey() + '\0' + rs.getString("player_uuid"), rs.getLong("best_millis"));
+                    }
+                }
+            }
+        }
+        return stored;
+    }
+
     @Override
     public void resetBestTime(UUID playerUuid, String timerId) throws Exception {
         String sql = "DELETE FROM ztimer_best_times WHERE player_uuid = ? AND timer_id = ?";
@@ -107,7 +261,7 @@ public class MysqlStorage extends Storage {
     @Override
     public List<LeaderboardEntry> getTopN(String timerId, int n) throws Exception {
         String sql = "SELECT player_uuid, player_name, best_millis FROM ztimer_best_times " +
-                "WHERE timer_id = ? ORDER BY best_millis ASC LIMIT ?";
+                "WHERE timer_id = ? ORDER BY best_millis ASC, player_uuid ASC LIMIT ?";
         try (Connection connection = dataSource.getConnection();
              PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, timerId);
@@ -6,12 +6,47 @@ import com.zenologia.ztimer.config.ConfigManager;
 import java.io.File;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * SQLite storage in WAL mode.
+ * All writes run on one dedicated writer thread that owns the write connection,
+ * while reads borrow from a small pool of query-only connections so leaderboard
+ * and best-time lookups are not blocked behind an open write.
+ */
 public class SqliteStorage extends Storage {
 
-    private Connection connection;
+    private static final String SUBMIT_BEST_SQL = "INSERT INTO ztimer_best_times (player_uuid, player_name, timer_id, best_millis, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT(player_uuid, timer_id) DO UPDATE SET " +
+            "player_name = excluded.player_name, best_millis = excluded.best_millis, last_updated = excluded.last_updated " +
+            "WHERE excluded.best_millis < ztimer_best_times.best_millis";
+
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+
+    private String url;
+    private ExecutorService writer;
+    // Only touched from the writer thread.
+    private Connection writeConnection;
+    private BlockingQueue<Connection> readConnections;
+    private int readPoolSize = 1;
+
+    private String synchronousMode;
+    private int cacheSizeKb;
+    private long mmapSizeBytes;
 
     public SqliteStorage(ZTimerPlugin plugin, ConfigManager configManager) {
         super(plugin, configManager);
@@ -25,17 +60,71 @@ public class SqliteStorage extends Storage {
             //noinspection ResultOfMethodCallIgnored
             dbFile.getParentFile().mkdirs();
         }
-        String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
-        connection = DriverManager.getConnection(url);
-        createSchema(connection);
+        this.url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+
+        String configuredSynchronous = configManager.getRawConfig().getString("storage.sqlite.synchronous", "NORMAL");
+        this.synchronousMode = configuredSynchronous == null ? "NORMAL" : configuredSynchronous.toUpperCase(Locale.ROOT);
+        if (!SYNCHRONOUS_MODES.contains(synchronousMode)) {
+            plugin.getLogger().warning("Unknown storage.sqlite.synchronous value '" + configuredSynchronous + "'; using NORMAL.");
+            this.synchronousMode = "NORMAL";
+        }
+        this.cacheSizeKb = Math.max(0, configManager.getRawConfig().getInt("storage.sqlite.cache_size_kb", 8192));
+        this.mmapSizeBytes = Math.max(0L, configManager.getRawConfig().getLong("storage.sqlite.mmap_size_mb", 64L)) * 1024L * 1024L;
+        this.readPoolSize = Math.max(1, configManager.getRawConfig().getInt("storage.sqlite.read_connections", 3));
+
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ZTimer-SQLite-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        write(ignored -> {
+            writeConnection = DriverManager.getConnection(url);
+            try (Statement st = writeConnection.createStatement()) {
+                // journal_mode is persisted in the database file; readers pick it up automatically.
+                st.execute("PRAGMA journal_mode = WAL");
+            }
+            applyPragmas(writeConnection);
+            createSchema(writeConnection);
+            return null;
+        });
+
+        this.readConnections = new ArrayBlockingQueue<>(readPoolSize);
+        for (int i = 0; i < readPoolSize; i++) {
+            Connection readConnection = DriverManager.getConnection(url);
+            applyPragmas(readConnection);
+            try (Statement st = readConnection.createStatement()) {
+                st.execute("PRAGMA query_only = ON");
+            }
+            readConnections.add(readConnection);
+        }
+    }
+
+    @Override
+    public int getDefaultExecutorThreads() {
+        // One thread to feed the writer plus one per read connection.
+        return readPoolSize + 1;
     }
 
     @Override
     public void shutdown() {
-        if (connection != null) {
+        if (writer != null) {
+            writer.submit(() -> closeQuietly(writeConnection));
+            writer.shutdown();
             try {
-                connection.close();
-            } catch (SQLException ignored) {
+                if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                    plugin.getLogger().warning("SQLite writer did not finish within 10 seconds.");
+                    writer.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                writer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (readConnections != null) {
+            Connection readConnection;
+            while ((readConnection = readConnections.poll()) != null) {
+                closeQuietly(readConnection);
             }
         }
     }
@@ -43,16 +132,73 @@ public class SqliteStorage extends Storage {
     @Override
     public Long getBestTime(UUID playerUuid, String timerId) throws Exception {
         String sql = "SELECT best_millis FROM ztimer_best_times WHERE player_uuid = ? AND timer_id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, timerId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong("best_millis");
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, playerUuid.toString());
+                ps.setString(2, timerId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getLong("best_millis");
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
+    }
+
+    @Override
+    public Map<String, Long> getBestTimes(UUID playerUuid) throws Exception {
+        String sql = "SELECT timer_id, best_millis FROM ztimer_best_times WHERE player_uuid = ?";
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, playerUuid.toString());
+                Map<String, Long> result = new HashMap<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getString("timer_id"), rs.getLong("best_millis"));
+                    }
+                }
+                return result;
+            }
+        });
+    }
+
+    @Override
+    public List<LeaderboardEntry> getPage(String timerId, LeaderboardEntry after, int limit) throws Exception {
+        String sql = "SELECT player_uuid, player_name, best_millis FROM ztimer_best_times WHERE timer_id = ? " +
+                (after == null ? "" : "AND (best_millis > ? OR (best_millis = ? AND player_uuid > ?)) ") +
+                "ORDER BY best_millis ASC, player_uuid ASC LIMIT ?";
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int index = bindPageCursor(ps, timerId, after);
+                ps.setInt(index, limit);
+                List<LeaderboardEntry> result = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        UUID uuid = UUID.fromString(rs.getString("player_uuid"));
+                        result.add(new LeaderboardEntry(uuid, rs.getString("player_name"), rs.getLong("best_millis")));
+                    }
+                }
+                return result;
+            }
+        });
+    }
+
+    @Override
+    public Map<UUID, Long> getAllBestTimes(String timerId) throws Exception {
+        String sql = "SELECT player_uuid, best_millis FROM ztimer_best_times WHERE timer_id = ?";
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, timerId);
+                Map<UUID, Long> result = new HashMap<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(UUID.fromString(rs.getString("player_uuid")), rs.getLong("best_millis"));
+                    }
+                }
+                return result;
+            }
+        });
     }
 
     @Override
@@ -61,65 +207,173 @@ public class SqliteStorage extends Storage {
                 "VALUES (?, ?, ?, ?, ?) " +
                 "ON CONFLICT(player_uuid, timer_id) DO UPDATE SET " +
                 "player_name = excluded.player_name, best_millis = excluded.best_millis, last_updated = excluded.last_updated";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, playerName);
-            ps.setString(3, timerId);
-            ps.setLong(4, bestMillis);
-            ps.setTimestamp(5, new Timestamp(nowMillis));
-            ps.executeUpdate();
+        write(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, playerUuid.toString());
+                ps.setString(2, playerName);
+                ps.setString(3, timerId);
+                ps.setLong(4, bestMillis);
+                ps.setTimestamp(5, new Timestamp(nowMillis));
+                ps.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public boolean submitBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
+        return write(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(SUBMIT_BEST_SQL)) {
+                ps.setString(1, playerUuid.toString());
+                ps.setString(2, playerName);
+                ps.setString(3, timerId);
+                ps.setLong(4, bestMillis);
+                ps.setTimestamp(5, new Timestamp(nowMillis));
+                // The DO UPDATE ... WHERE clause leaves the row untouched (0 changes) when the stored time is faster.
+                return ps.executeUpdate() > 0;
+            }
+        });
+    }
+
+    @Override
+    public List<BestTimeUpdate> submitBestTimes(List<BestTimeUpdate> updates) throws Exception {
+        if (updates.isEmpty()) {
+            return Collections.emptyList();
         }
+
+        return write(connection -> {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(SUBMIT_BEST_SQL)) {
+                for (BestTimeUpdate update : updates) {
+                    ps.setString(1, update.getPlayerUuid().toString());
+                    ps.setString(2, update.getPlayerName());
+                    ps.setString(3, update.getTimerId());
+                    ps.setLong(4, update.getBestMillis());
+                    ps.setTimestamp(5, new Timestamp(update.getNowMillis()));
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+                connection.commit();
+                return improvedUpdates(updates, counts);
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
     }
 
     @Override
     public void resetBestTime(UUID playerUuid, String timerId) throws Exception {
         String sql = "DELETE FROM ztimer_best_times WHERE player_uuid = ? AND timer_id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerUuid.toString());
-            ps.setString(2, timerId);
-            ps.executeUpdate();
-        }
+        write(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, playerUuid.toString());
+                ps.setString(2, timerId);
+                ps.executeUpdate();
+            }
+            return null;
+        });
     }
 
 
     @Override
     public void updatePlayerName(java.util.UUID playerUuid, String playerName) throws Exception {
         String sql = "UPDATE ztimer_best_times SET player_name = ? WHERE player_uuid = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, playerName);
-            ps.setString(2, playerUuid.toString());
-            ps.executeUpdate();
-        }
+        write(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, playerName);
+                ps.setString(2, playerUuid.toString());
+                ps.executeUpdate();
+            }
+            return null;
+        });
     }
 
     @Override
     public List<LeaderboardEntry> getTopN(String timerId, int n) throws Exception {
         String sql = "SELECT player_uuid, player_name, best_millis FROM ztimer_best_times " +
-                "WHERE timer_id = ? ORDER BY best_millis ASC LIMIT ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, timerId);
-            ps.setInt(2, n);
-            List<LeaderboardEntry> result = new ArrayList<>();
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    UUID uuid = UUID.fromString(rs.getString("player_uuid"));
-                    String name = rs.getString("player_name");
-                    long best = rs.getLong("best_millis");
-                    result.add(new LeaderboardEntry(uuid, name, best));
+                "WHERE timer_id = ? ORDER BY best_millis ASC, player_uuid ASC LIMIT ?";
+        return read(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, timerId);
+                ps.setInt(2, n);
+                List<LeaderboardEntry> result = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        UUID uuid = UUID.fromString(rs.getString("player_uuid"));
+                        String name = rs.getString("player_name");
+                        long best = rs.getLong("best_millis");
+                        result.add(new LeaderboardEntry(uuid, name, best));
+                    }
                 }
+                return result;
             }
-            return result;
-        }
+        });
     }
 
 
     @Override
     public void resetBestTimeForTimer(String timerId) throws Exception {
         String sql = "DELETE FROM ztimer_best_times WHERE timer_id = ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, timerId);
-            ps.executeUpdate();
+        write(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setString(1, timerId);
+                ps.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    private void applyPragmas(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("PRAGMA synchronous = " + synchronousMode);
+            // Negative cache_size is in KiB rather than pages.
+            st.execute("PRAGMA cache_size = -" + cacheSizeKb);
+            st.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            st.execute("PRAGMA temp_store = MEMORY");
+            st.execute("PRAGMA busy_timeout = 5000");
+        }
+    }
+
+    /**
+     * Runs the work on the writer thread and waits for it, rethrowing the original failure.
+     */
+    private <T> T write(SqlWork<T> work) throws Exception {
+        Future<T> future = writer.submit(() -> work.run(writeConnection));
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
         }
     }
 
+    private <T> T read(SqlWork<T> work) throws Exception {
+        Connection connection = readConnections.take();
+        try {
+            return work.run(connection);
+        } finally {
+            readConnections.offer(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
 }
@@ -1,10 +1,13 @@
 package com.zenologia.ztimer.db;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 import com.zenologia.ztimer.ZTimerPlugin;
@@ -14,28 +17,113 @@ public abstract class Storage {
 
     protected final ZTimerPlugin plugin;
     protected final ConfigManager configManager;
+    // Set once the facade exists, so backends can queue their own maintenance on the storage executor.
+    private volatile AsyncStorage asyncStorage;
 
     protected Storage(ZTimerPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
     }
 
+    void setAsyncStorage(AsyncStorage asyncStorage) {
+        this.asyncStorage = asyncStorage;
+    }
+
+    /**
+     * @return the facade running this storage, or null before it is created
+     */
+    protected AsyncStorage getAsyncStorage() {
+        return asyncStorage;
+    }
+
     public abstract void initialize() throws Exception;
 
+    /**
+     * Storage executor size used when storage.executor.threads is not set.
+     * File-backed storages serialize on their monitor, so one thread is enough.
+     */
+    public int getDefaultExecutorThreads() {
+        return 1;
+    }
+
     public abstract void shutdown();
 
     public abstract Long getBestTime(UUID playerUuid, String timerId) throws Exception;
 
+    /**
+     * Loads every stored best time for one player in a single read, keyed by timer id.
+     */
+    public abstract Map<String, Long> getBestTimes(UUID playerUuid) throws Exception;
+
     public abstract void updateBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception;
 
+    /**
+     * Submits a candidate best time in a single statement; storage keeps the minimum.
+     *
+     * @return true if the candidate was inserted or replaced a slower stored time
+     */
+    public abstract boolean submitBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception;
+
+    /**
+     * Writes a batch of candidate best times in one transaction. Existing rows are
+     * only overwritten when the candidate is lower than the stored time.
+     *
+     * @return the updates that changed stored data
+     */
+    public abstract List<BestTimeUpdate> submitBestTimes(List<BestTimeUpdate> updates) throws Exception;
+
     public abstract void resetBestTime(UUID playerUuid, String timerId) throws Exception;
 
     public abstract void resetBestTimeForTimer(String timerId) throws Exception;
 
     public abstract List<LeaderboardEntry> getTopN(String timerId, int n) throws Exception;
 
+    /**
+     * Reads one page of the timer's leaderboard, ordered by (best_millis, player_uuid).
+     * Pages are keyset-paginated: pass the last entry of the previous page as the cursor,
+     * or null for the first page, so deep pages never scan the rows before them.
+     */
+    public abstract List<LeaderboardEntry> getPage(String timerId, LeaderboardEntry after, int limit) throws Exception;
+
+    /**
+     * Loads every stored best time for one timer in a single read, keyed by player.
+     */
+    public abstract Map<UUID, Long> getAllBestTimes(String timerId) throws Exception;
+
     public abstract void updatePlayerName(UUID playerUuid, String playerName) throws Exception;
 
+    /**
+     * Maps JDBC batch update counts back to the updates that changed a row.
+     * Only usable with drivers that report real per-row counts; rows reported as
+     * SUCCESS_NO_INFO are treated as changed.
+     */
+    protected static List<BestTimeUpdate> improvedUpdates(List<BestTimeUpdate> updates, int[] counts) {
+        List<BestTimeUpdate> improved = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            int count = i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                improved.add(updates.get(i));
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Binds the timer id and, when present, the keyset cursor of a getPage query.
+     *
+     * @return the index of the next parameter to bind
+     */
+    protected static int bindPageCursor(PreparedStatement ps, String timerId, LeaderboardEntry after) throws SQLException {
+        int index = 1;
+        ps.setString(index++, timerId);
+        if (after != null) {
+            ps.setLong(index++, after.getBestMillis());
+            ps.setLong(index++, after.getBestMillis());
+            ps.setString(index++, after.getPlayerUuid().toString());
+        }
+        return index;
+    }
+
     protected void createSchema(Connection connection) throws SQLException {
         try (Statement st = connection.createStatement()) {
             st.executeUpdate(
@@ -65,6 +153,8 @@ public abstract class Storage {
                 return new MysqlStorage(plugin, configManager);
             case "yaml":
                 return new YamlStorage(plugin, configManager);
+            case "binary":
+                return new BinaryStorage(plugin, configManager);
             case "sqlite":
             default:
                 return new SqliteStorage(plugin, configManager);
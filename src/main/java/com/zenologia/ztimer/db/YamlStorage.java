@@ -1,10 +1,18 @@
 package com.zenologia.ztimer.db;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.configuration.ConfigurationSection;
@@ -13,10 +21,31 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import com.zenologia.ztimer.ZTimerPlugin;
 import com.zenologia.ztimer.config.ConfigManager;
 
+/**
+ * YAML storage backed by a snapshot file plus an append-only journal.
+ * Every mutation appends one short record to the journal instead of rewriting the
+ * snapshot; once the journal passes storage.yaml.compact_threshold_kb, the snapshot
+ * is rewritten on the storage executor and the journal starts over. Compaction only copies
+ * the data under the monitor; serializing and writing it happen outside.
+ */
 public class YamlStorage extends Storage {
 
+    private static final String RECORD_BEST = "B";
+    private static final String RECORD_RESET = "R";
+    private static final String RECORD_RESET_TIMER = "T";
+    private static final String RECORD_NAME = "N";
+
     private File file;
+    private File journalFile;
+    // Holds the journal being folded into the snapshot by an in-progress (or interrupted) compaction.
+    private File compactingJournalFile;
     private YamlConfiguration yaml;
+    private final BestTimeIndex index = new BestTimeIndex();
+
+    private BufferedWriter journal;
+    private long journalBytes;
+    private long compactThresholdBytes;
+    private boolean compacting;
 
     public YamlStorage(ZTimerPlugin plugin, ConfigManager configManager) {
         super(plugin, configManager);
@@ -32,6 +61,11 @@ public class YamlStorage extends Storage {
             parent.mkdirs();
         }
 
+        this.journalFile = new File(file.getParentFile(), file.getName() + ".journal");
+        this.compactingJournalFile = new File(file.getParentFile(), file.getName() + ".journal.compacting");
+        this.compactThresholdBytes = Math.max(1L,
+                configManager.getRawConfig().getLong("storage.yaml.compact_threshold_kb", 1024L)) * 1024L;
+
         if (!file.exists()) {
             yaml = new YamlConfiguration();
             yaml.createSection("players");
@@ -39,15 +73,41 @@ public class YamlStorage extends Storage {
         }
 
         yaml = YamlConfiguration.loadConfiguration(file);
+        boolean dirty = false;
         if (!yaml.isConfigurationSection("players")) {
             yaml.set("players", null);
             yaml.createSection("players");
-            save();
+            dirty = true;
         }
+
+        rebuildIndex();
+
+        // A leftover compacting journal means the last compaction never finished; it is older than the live journal.
+        int replayed = replayJournal(compactingJournalFile) + replayJournal(journalFile);
+        if (replayed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " YAML storage journal record(s).");
+            dirty = true;
+        }
+
+        if (dirty) {
+            writeSnapshot(yaml.saveToString());
+        }
+        Files.deleteIfExists(compactingJournalFile.toPath());
+        Files.deleteIfExists(journalFile.toPath());
+        openJournal();
     }
 
     @Override
-    public void shutdown() {
+    public synchronized void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            plugin.getLogger().severe("Failed to close YAML storage journal: " + ex.getMessage());
+        }
+        journal = null;
     }
 
     @Override
@@ -56,8 +116,75 @@ public class YamlStorage extends Storage {
         return yaml.contains(path) ? yaml.getLong(path) : null;
     }
 
+    @Override
+    public synchronized Map<String, Long> getBestTimes(UUID playerUuid) {
+        Map<String, Long> result = new HashMap<>();
+        ConfigurationSection timersSection = yaml.getConfigurationSection("players." + playerUuid + ".timers");
+        if (timersSection == null) {
+            return result;
+        }
+        for (String timerId : timersSection.getKeys(false)) {
+            String path = timerId + ".best_millis";
+            if (timersSection.contains(path)) {
+                result.put(timerId, timersSection.getLong(path));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Map<UUID, Long> getAllBestTimes(String timerId) {
+        Map<UUID, Long> result = new HashMap<>();
+        for (BestTimeIndex.Entry entry : index.all(timerId)) {
+            result.put(entry.getPlayerUuid(), entry.getBestMillis());
+        }
+        return result;
+    }
+
     @Override
     public synchronized void updateBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
+        writeBestTime(playerUuid, playerName, timerId, bestMillis, nowMillis);
+        appendBestTimeRecord(playerUuid, playerName, timerId, bestMillis, nowMillis);
+        afterAppend();
+    }
+
+    @Override
+    public synchronized boolean submitBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws Exception {
+        // Compare-and-set under the storage monitor.
+        Long currentBest = getBestTime(playerUuid, timerId);
+        if (currentBest != null && currentBest <= bestMillis) {
+            return false;
+        }
+        writeBestTime(playerUuid, playerName, timerId, bestMillis, nowMillis);
+        appendBestTimeRecord(playerUuid, playerName, timerId, bestMillis, nowMillis);
+        afterAppend();
+        return true;
+    }
+
+    @Override
+    public synchronized List<BestTimeUpdate> submitBestTimes(List<BestTimeUpdate> updates) throws Exception {
+        List<BestTimeUpdate> improved = new ArrayList<>();
+        for (BestTimeUpdate update : updates) {
+            Long currentBest = getBestTime(update.getPlayerUuid(), update.getTimerId());
+            if (currentBest != null && currentBest <= update.getBestMillis()) {
+                continue;
+            }
+            writeBestTime(update.getPlayerUuid(), update.getPlayerName(), update.getTimerId(),
+                    update.getBestMillis(), update.getNowMillis());
+            appendBestTimeRecord(update.getPlayerUuid(), update.getPlayerName(), update.getTimerId(),
+                    update.getBestMillis(), update.getNowMillis());
+            improved.add(update);
+        }
+
+        if (!improved.isEmpty()) {
+            afterAppend();
+        }
+        return improved;
+    }
+
+    private void writeBestTime(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) {
+        index.put(timerId, playerUuid, getBestTime(playerUuid, timerId), bestMillis);
+
         ConfigurationSection playerSection = getOrCreatePlayerSection(playerUuid);
         playerSection.set("player_name", playerName);
 
@@ -73,31 +200,45 @@ public class YamlStorage extends Storage {
 
         timerSection.set("best_millis", bestMillis);
         timerSection.set("last_updated", nowMillis);
-        save();
     }
 
     @Override
     public synchronized void resetBestTime(UUID playerUuid, String timerId) throws Exception {
+        if (!applyReset(playerUuid, timerId)) {
+            return;
+        }
+        appendRecord(RECORD_RESET, playerUuid.toString(), timerId);
+        afterAppend();
+    }
+
+    private boolean applyReset(UUID playerUuid, String timerId) {
+        Long previous = getBestTime(playerUuid, timerId);
+        if (previous != null) {
+            index.remove(timerId, playerUuid, previous);
+        }
+
         ConfigurationSection timersSection = yaml.getConfigurationSection("players." + playerUuid + ".timers");
         if (timersSection == null) {
-            return;
+            return false;
         }
 
         timersSection.set(timerId, null);
         cleanupPlayerSection(playerUuid.toString());
-        save();
+        return true;
     }
 
     @Override
     public synchronized void resetBestTimeForTimer(String timerId) throws Exception {
-        ConfigurationSection playersSection = yaml.getConfigurationSection("players");
-        if (playersSection == null) {
-            return;
-        }
+        applyResetTimer(timerId);
+        appendRecord(RECORD_RESET_TIMER, timerId);
+        afterAppend();
+    }
 
-        List<String> playerIds = new ArrayList<>(playersSection.getKeys(false));
-        for (String playerId : playerIds) {
-            ConfigurationSection timersSection = playersSection.getConfigurationSection(playerId + ".timers");
+    private void applyResetTimer(String timerId) {
+        // Only players that actually have a time for this timer are touched.
+        for (BestTimeIndex.Entry entry : index.removeTimer(timerId)) {
+            String playerId = entry.getPlayerUuid().toString();
+            ConfigurationSection timersSection = yaml.getConfigurationSection("players." + playerId + ".timers");
             if (timersSection == null) {
                 continue;
             }
@@ -105,49 +246,49 @@ public class YamlStorage extends Storage {
             timersSection.set(timerId, null);
             cleanupPlayerSection(playerId);
         }
-
-        save();
     }
 
     @Override
     public synchronized List<LeaderboardEntry> getTopN(String timerId, int n) {
-        List<LeaderboardEntry> entries = new ArrayList<>();
-        ConfigurationSection playersSection = yaml.getConfigurationSection("players");
-        if (playersSection == null) {
-            return entries;
-        }
-
-        for (String playerId : playersSection.getKeys(false)) {
-            String timerPath = "players." + playerId + ".timers." + timerId;
-            if (!yaml.contains(timerPath + ".best_millis")) {
-                continue;
-            }
+        return toLeaderboardEntries(index.head(timerId, n));
+    }
 
-            try {
-                UUID uuid = UUID.fromString(playerId);
-                String playerName = yaml.getString("players." + playerId + ".player_name", playerId);
-                long bestMillis = yaml.getLong(timerPath + ".best_millis");
-                entries.add(new LeaderboardEntry(uuid, playerName, bestMillis));
-            } catch (IllegalArgumentException ignored) {
-            }
-        }
+    @Override
+    public synchronized List<LeaderboardEntry> getPage(String timerId, LeaderboardEntry after, int limit) {
+        return toLeaderboardEntries(index.page(timerId, after == null ? null : new BestTimeIndex.Entry(after.getBestMillis(), after.getPlayerUuid()), limit));
+    }
 
-        entries.sort(Comparator.comparingLong(LeaderboardEntry::getBestMillis));
-        if (entries.size() <= n) {
-            return entries;
+    private List<LeaderboardEntry> toLeaderboardEntries(List<BestTimeIndex.Entry> indexEntries) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (BestTimeIndex.Entry entry : indexEntries) {
+            String playerId = entry.getPlayerUuid().toString();
+            String playerName = yaml.getString("players." + playerId + ".player_name", playerId);
+            entries.add(new LeaderboardEntry(entry.getPlayerUuid(), playerName, entry.getBestMillis()));
         }
-        return new ArrayList<>(entries.subList(0, n));
+        return entries;
     }
 
     @Override
     public synchronized void updatePlayerName(UUID playerUuid, String playerName) throws Exception {
-        ConfigurationSection playerSection = yaml.getConfigurationSection("players." + playerUuid);
-        if (playerSection == null) {
+        if (!applyPlayerName(playerUuid.toString(), playerName)) {
             return;
         }
+        appendRecord(RECORD_NAME, playerUuid.toString(), playerName);
+        afterAppend();
+    }
 
+    private boolean applyPlayerName(String playerId, String playerName) {
+        ConfigurationSection playerSection = yaml.getConfigurationSection("players." + playerId);
+        if (playerSection == null) {
+            return false;
+        }
+
+        // Joins call this every time; skip the journal write when nothing changed.
+        if (playerName.equals(playerSection.getString("player_name"))) {
+            return false;
+        }
         playerSection.set("player_name", playerName);
-        save();
+        return true;
     }
 
     private ConfigurationSection getOrCreatePlayerSection(UUID playerUuid) {
@@ -178,11 +319,205 @@ public class YamlStorage extends Storage {
         yaml.set("players." + playerId, null);
     }
 
+    /**
+     * Builds the per-timer index from the loaded snapshot; afterwards every mutation keeps it in sync.
+     */
+    private void rebuildIndex() {
+        index.clear();
+        ConfigurationSection playersSection = yaml.getConfigurationSection("players");
+        if (playersSection == null) {
+            return;
+        }
+
+        for (String playerId : playersSection.getKeys(false)) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(playerId);
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+
+            ConfigurationSection timersSection = playersSection.getConfigurationSection(playerId + ".timers");
+            if (timersSection == null) {
+                continue;
+            }
+
+            for (String timerId : timersSection.getKeys(false)) {
+                String bestPath = timerId + ".best_millis";
+                if (timersSection.contains(bestPath)) {
+                    index.put(timerId, uuid, null, timersSection.getLong(bestPath));
+                }
+            }
+        }
+    }
+
     private String timerPath(UUID playerUuid, String timerId) {
         return "players." + playerUuid + ".timers." + timerId;
     }
 
-    private void save() throws IOException {
-        yaml.save(file);
+    private int replayJournal(File journalSource) throws IOException {
+        if (!journalSource.exists()) {
+            return 0;
+        }
+
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalSource.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    if (replayRecord(line.split("\t", -1))) {
+                        replayed++;
+                    }
+                } catch (RuntimeException ex) {
+                    // Usually a record truncated by a crash mid-append; everything before it is still valid.
+                    plugin.getLogger().warning("Skipping malformed YAML storage journal record in "
+                            + journalSource.getName() + ": " + line);
+                }
+            }
+        }
+        return replayed;
+    }
+
+    private boolean replayRecord(String[] fields) {
+        switch (fields[0]) {
+            case RECORD_BEST:
+                writeBestTime(UUID.fromString(fields[1]), fields[5], fields[2],
+                        Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+                return true;
+            case RECORD_RESET:
+                applyReset(UUID.fromString(fields[1]), fields[2]);
+                return true;
+            case RECORD_RESET_TIMER:
+                applyResetTimer(fields[1]);
+                return true;
+            case RECORD_NAME:
+                applyPlayerName(UUID.fromString(fields[1]).toString(), fields[2]);
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown record type " + fields[0]);
+        }
+    }
+
+    private void appendBestTimeRecord(UUID playerUuid, String playerName, String timerId, long bestMillis, long nowMillis) throws IOException {
+        appendRecord(RECORD_BEST, playerUuid.toString(), timerId, Long.toString(bestMillis), Long.toString(nowMillis), playerName);
+    }
+
+    private void appendRecord(String... fields) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            line.append(sanitize(fields[i]));
+        }
+        line.append('\n');
+
+        String record = line.toString();
+        journal.write(record);
+        journalBytes += record.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Flushes appended records to disk and schedules a background compaction once the journal is large enough.
+     */
+    private void afterAppend() throws IOException {
+        journal.flush();
+        AsyncStorage asyncStorage = getAsyncStorage();
+        if (journalBytes < compactThresholdBytes || compacting || asyncStorage == null || !plugin.isEnabled()) {
+            return;
+        }
+
+        compacting = true;
+        asyncStorage.run(this::compact).whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                // Rejected by a full or stopped executor; the next append tries again.
+                plugin.getLogger().warning("Could not schedule YAML storage compaction: " + ex.getMessage());
+                synchronized (this) {
+                    compacting = false;
+                }
+            }
+        });
+    }
+
+    private void compact() {
+        try {
+            Map<String, Object> snapshot;
+            synchronized (this) {
+                if (journal == null) {
+                    return;
+                }
+                snapshot = copySection(yaml);
+
+                // Rotate: records written from now on go to a fresh journal, the old one is kept until the snapshot lands.
+                journal.close();
+                if (compactingJournalFile.exists()) {
+                    // A previous compaction failed; keep its records ahead of the ones being rotated out.
+                    Files.write(compactingJournalFile.toPath(), Files.readAllBytes(journalFile.toPath()), StandardOpenOption.APPEND);
+                    Files.delete(journalFile.toPath());
+                } else {
+                    Files.move(journalFile.toPath(), compactingJournalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                openJournal();
+            }
+
+            YamlConfiguration copy = new YamlConfiguration();
+            for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+                if (entry.getValue() instanceof Map) {
+                    copy.createSection(entry.getKey(), (Map<?, ?>) entry.getValue());
+                } else {
+                    copy.set(entry.getKey(), entry.getValue());
+                }
+            }
+
+            // The snapshot already contains everything in the rotated journal, so it can go once the write lands.
+            writeSnapshot(copy.saveToString());
+            Files.deleteIfExists(compactingJournalFile.toPath());
+        } catch (IOException ex) {
+            plugin.getLogger().severe("Failed to compact YAML storage: " + ex.getMessage());
+            ex.printStackTrace();
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Deep-copies a section into plain maps, so it can be serialized without holding the monitor.
+     * Leaf values are strings and numbers, which are immutable.
+     */
+    private static Map<String, Object> copySection(ConfigurationSection section) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (String key : section.getKeys(false)) {
+            Object value = section.get(key);
+            copy.put(key, value instanceof ConfigurationSection ? copySection((ConfigurationSection) value) : value);
+        }
+        return copy;
+    }
+
+    private void openJournal() throws IOException {
+        this.journal = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.journalBytes = journalFile.length();
+    }
+
+    private void writeSnapshot(String contents) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        Files.writeString(tempFile.toPath(), contents, StandardCharsets.UTF_8);
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String sanitize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
     }
 }
@@ -6,7 +6,9 @@ import com.zenologia.ztimer.timer.TimerManager;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 
 public class PlayerJoinListener implements Listener {
@@ -19,6 +21,15 @@ public class PlayerJoinListener implements Listener {
         this.pendingTeleportManager = pendingTeleportManager;
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        // Runs on the login thread, so the player's best times are cached before their first scoreboard render.
+        com.zenologia.ztimer.ZTimerPlugin.getInstance().getTimerManager().preloadBestTimes(event.getUniqueId());
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
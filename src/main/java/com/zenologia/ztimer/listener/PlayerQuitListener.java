@@ -21,5 +21,6 @@ public class PlayerQuitListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         timerManager.handleLogout(player);
+        timerManager.handleQuit(player);
     }
 }
@@ -0,0 +1,26 @@
+package com.zenologia.ztimer.listener;
+
+import com.zenologia.ztimer.timer.TimerManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+public class WorldListener implements Listener {
+
+    private final TimerManager timerManager;
+
+    public WorldListener(TimerManager timerManager) {
+        this.timerManager = timerManager;
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        timerManager.invalidateExitDestinations();
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        timerManager.invalidateExitDestinations();
+    }
+}
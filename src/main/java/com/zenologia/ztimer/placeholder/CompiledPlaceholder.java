@@ -0,0 +1,201 @@
+package com.zenologia.ztimer.placeholder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.zenologia.ztimer.timer.TimerHandle;
+import com.zenologia.ztimer.timer.TimerRegistry;
+
+/**
+ * A placeholder params string parsed once into its kind, timer handle and top position,
+ * so rendering it again needs no prefix checks, splitting or timer id normalization.
+ * Also holds the last rendered values when cache.render_per_tick is enabled.
+ */
+final class CompiledPlaceholder {
+
+    enum Kind {
+        ACTIVE_GLOBAL,
+        ACTIVE_COUNT,
+        ACTIVE_PLAYERS,
+        TOTAL,
+        ACTIVE,
+        CURRENT,
+        CURRENT_SECONDS,
+        CURRENT_MILLIS,
+        BEST,
+        BEST_SECONDS,
+        BEST_MILLIS,
+        TOP_NAME,
+        TOP_TIME,
+        RANK,
+        PERCENTILE,
+        // Recognized but malformed, e.g. a top_ entry without a numeric position; renders as "".
+        EMPTY,
+        // Not one of ours; PlaceholderAPI gets null, or "" when there is no player.
+        UNKNOWN;
+
+        boolean needsPlayer() {
+            return this != ACTIVE_GLOBAL && this != ACTIVE_COUNT && this != ACTIVE_PLAYERS && this != TOTAL
+                    && this != EMPTY && this != UNKNOWN;
+        }
+
+        /**
+         * True for top_ entries, whose value depends only on the leaderboard, not on the viewer or tick.
+         */
+        boolean isLeaderboard() {
+            return this == TOP_NAME || this == TOP_TIME;
+        }
+    }
+
+    private final Kind kind;
+    private final TimerHandle timer;
+    private final int position;
+
+    // Last rendered values, valid while their stamp (server tick or leaderboard version) matches.
+    private volatile Memo globalMemo;
+    private final Map<UUID, Memo> playerMemos = new ConcurrentHashMap<>();
+    private volatile long playerMemoStamp = Long.MIN_VALUE;
+
+    private CompiledPlaceholder(Kind kind, TimerHandle timer, int position) {
+        this.kind = kind;
+        this.timer = timer;
+        this.position = position;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the timer, or null if the id normalized to empty
+     */
+    TimerHandle getTimer() {
+        return timer;
+    }
+
+    /**
+     * @return the 1-based leaderboard position for TOP_NAME and TOP_TIME
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * @param viewer the player the value was rendered for, or null for viewer-independent values
+     * @return the value rendered for this viewer under the same stamp, or null
+     */
+    String getMemo(UUID viewer, long stamp) {
+        Memo memo = viewer == null ? globalMemo : playerMemos.get(viewer);
+        return memo != null && memo.stamp == stamp ? memo.value : null;
+    }
+
+    void memo(UUID viewer, long stamp, String value) {
+        Memo memo = new Memo(stamp, value);
+        if (viewer == null) {
+            globalMemo = memo;
+            return;
+        }
+        if (playerMemoStamp != stamp) {
+            // A new tick: every older per-player value is stale, so drop them instead of letting them pile up.
+            playerMemos.clear();
+            playerMemoStamp = stamp;
+        }
+        playerMemos.put(viewer, memo);
+    }
+
+    static CompiledPlaceholder compile(String params, TimerRegistry timerRegistry) {
+        // Longer prefixes first: active_global_ and active_count_ also start with active_.
+        if (params.startsWith("active_global_")) {
+            return timed(Kind.ACTIVE_GLOBAL, params, "active_global_", timerRegistry);
+        }
+        if (params.startsWith("active_count_")) {
+            return timed(Kind.ACTIVE_COUNT, params, "active_count_", timerRegistry);
+        }
+        if (params.startsWith("active_players_")) {
+            return timed(Kind.ACTIVE_PLAYERS, params, "active_players_", timerRegistry);
+        }
+        if (params.startsWith("total_")) {
+            return timed(Kind.TOTAL, params, "total_", timerRegistry);
+        }
+        if (params.startsWith("active_")) {
+            return timed(Kind.ACTIVE, params, "active_", timerRegistry);
+        }
+        if (params.startsWith("current_seconds_")) {
+            return timed(Kind.CURRENT_SECONDS, params, "current_seconds_", timerRegistry);
+        }
+        if (params.startsWith("current_millis_")) {
+            return timed(Kind.CURRENT_MILLIS, params, "current_millis_", timerRegistry);
+        }
+        if (params.startsWith("current_")) {
+            return timed(Kind.CURRENT, params, "current_", timerRegistry);
+        }
+        if (params.startsWith("best_seconds_")) {
+            return timed(Kind.BEST_SECONDS, params, "best_seconds_", timerRegistry);
+        }
+        if (params.startsWith("best_millis_")) {
+            return timed(Kind.BEST_MILLIS, params, "best_millis_", timerRegistry);
+        }
+        if (params.startsWith("best_")) {
+            return timed(Kind.BEST, params, "best_", timerRegistry);
+        }
+        if (params.startsWith("top_")) {
+            return compileTop(params.substring("top_".length()), timerRegistry);
+        }
+        if (params.startsWith("rank_")) {
+            return timed(Kind.RANK, params, "rank_", timerRegistry);
+        }
+        if (params.startsWith("percentile_")) {
+            return timed(Kind.PERCENTILE, params, "percentile_", timerRegistry);
+        }
+        return new CompiledPlaceholder(Kind.UNKNOWN, null, 0);
+    }
+
+    private static CompiledPlaceholder timed(Kind kind, String params, String prefix, TimerRegistry timerRegistry) {
+        return new CompiledPlaceholder(kind, timerRegistry.resolve(params.substring(prefix.length())), 0);
+    }
+
+    private static CompiledPlaceholder compileTop(String remainder, TimerRegistry timerRegistry) {
+        // top_<position>_<timerId>_name or _time; timer IDs may contain underscores,
+        // so the position is everything before the first '_' and the suffix everything after the last.
+        int firstSeparator = remainder.indexOf('_');
+        int lastSeparator = remainder.lastIndexOf('_');
+        if (firstSeparator < 0 || lastSeparator <= firstSeparator) {
+            return new CompiledPlaceholder(Kind.EMPTY, null, 0);
+        }
+
+        String suffix = remainder.substring(lastSeparator + 1);
+        Kind kind;
+        if (suffix.equals("name")) {
+            kind = Kind.TOP_NAME;
+        } else if (suffix.equals("time")) {
+            kind = Kind.TOP_TIME;
+        } else {
+            return new CompiledPlaceholder(Kind.EMPTY, null, 0);
+        }
+
+        int position;
+        try {
+            position = Integer.parseInt(remainder.substring(0, firstSeparator));
+        } catch (NumberFormatException ex) {
+            return new CompiledPlaceholder(Kind.EMPTY, null, 0);
+        }
+
+        TimerHandle timer = timerRegistry.resolve(remainder.substring(firstSeparator + 1, lastSeparator));
+        if (timer == null || position < 1) {
+            return new CompiledPlaceholder(Kind.EMPTY, null, 0);
+        }
+        return new CompiledPlaceholder(kind, timer, position);
+    }
+
+    private static final class Memo {
+
+        private final long stamp;
+        private final String value;
+
+        private Memo(long stamp, String value) {
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+}
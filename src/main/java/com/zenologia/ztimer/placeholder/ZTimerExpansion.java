@@ -4,14 +4,19 @@ import com.zenologia.ztimer.ZTimerPlugin;
 import com.zenologia.ztimer.config.ConfigManager;
 import com.zenologia.ztimer.db.LeaderboardEntry;
 import com.zenologia.ztimer.db.Storage;
+import com.zenologia.ztimer.timer.TimerHandle;
 import com.zenologia.ztimer.timer.TimerManager;
-import com.zenologia.ztimer.util.TimerIdNormalizer;
+import com.zenologia.ztimer.timer.TimerRegistry;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ZTimerExpansion extends PlaceholderExpansion {
 
@@ -19,12 +24,20 @@ public class ZTimerExpansion extends PlaceholderExpansion {
     private final TimerManager timerManager;
     private final Storage storage;
     private final ConfigManager configManager;
+    private final TimerRegistry timerRegistry;
+
+    // Placeholder params seen so far; capped so arbitrary params cannot grow the map forever.
+    private static final int MAX_COMPILED_PLACEHOLDERS = 4096;
+    private final Map<String, CompiledPlaceholder> compiledPlaceholders = new ConcurrentHashMap<>();
+    private volatile int compiledReloadCount;
 
     public ZTimerExpansion(ZTimerPlugin plugin, TimerManager timerManager, Storage storage, ConfigManager configManager) {
         this.plugin = plugin;
         this.timerManager = timerManager;
         this.storage = storage;
         this.configManager = configManager;
+        this.timerRegistry = configManager.getTimerRegistry();
+        this.compiledReloadCount = configManager.getReloadCount();
     }
 
     @Override
@@ -54,12 +67,61 @@ public class ZTimerExpansion extends PlaceholderExpansion {
 
     @Override
     public @Nullable String onPlaceholderRequest(Player player, @NotNull String params) {
+        CompiledPlaceholder placeholder = compiled(params);
+        CompiledPlaceholder.Kind kind = placeholder.getKind();
+        if (!configManager.isCacheRenderPerTick() || kind == CompiledPlaceholder.Kind.EMPTY
+                || kind == CompiledPlaceholder.Kind.UNKNOWN || (player == null && kind.needsPlayer())) {
+            return render(player, placeholder);
+        }
+
+        // Leaderboard entries stay valid until the leaderboard changes; everything else for the current tick.
+        UUID viewer;
+        long stamp;
+        if (kind.isLeaderboard()) {
+            viewer = null;
+            stamp = timerManager.getLeaderboardVersion(placeholder.getTimer());
+            if (stamp < 0) {
+                return render(player, placeholder);
+            }
+        } else {
+            viewer = kind.needsPlayer() ? player.getUniqueId() : null;
+            stamp = Bukkit.getCurrentTick();
+        }
 
-        // Only one global active placeholder: active_global_<timerId>
-        // This works even when Player is null.
-        if (params.startsWith("active_global_")) {
-            String timerIdPart = params.substring("active_global_".length());
-            return timerManager.isAnyActive(timerIdPart) ? "true" : "false";
+        String value = placeholder.getMemo(viewer, stamp);
+        if (value == null) {
+            value = render(player, placeholder);
+            if (value != null) {
+                placeholder.memo(viewer, stamp, value);
+            }
+        }
+        return value;
+    }
+
+    private String render(Player player, CompiledPlaceholder placeholder) {
+        CompiledPlaceholder.Kind kind = placeholder.getKind();
+        TimerHandle timer = placeholder.getTimer();
+
+        // Global placeholders work even when Player is null.
+        switch (kind) {
+            case ACTIVE_GLOBAL:
+                return timer != null && timerManager.isAnyActive(timer) ? "true" : "false";
+            case ACTIVE_COUNT:
+                return timer == null ? "0" : String.valueOf(timerManager.getActiveCount(timer));
+            case ACTIVE_PLAYERS:
+                return timer == null ? "" : String.join(", ", timerManager.getActivePlayerNames(timer));
+            case TOTAL: {
+                // Number of players with a time; empty until the rank index has loaded.
+                Integer total = timer == null ? null : timerManager.getRankedTotal(timer);
+                return total == null ? "" : String.valueOf(total);
+            }
+            case EMPTY:
+                return "";
+            case UNKNOWN:
+                // Without a player every non-global request has always rendered as "".
+                return player == null ? "" : null;
+            default:
+                break;
         }
 
         // For all other placeholders we need a valid Player context.
@@ -67,148 +129,102 @@ public class ZTimerExpansion extends PlaceholderExpansion {
             return "";
         }
 
-        // per-player active_<timerId>
-        if (params.startsWith("active_")) {
-            String timerIdPart = params.substring("active_".length());
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "false";
+        switch (kind) {
+            case ACTIVE:
+                return timer != null && timerManager.isActive(player, timer) ? "true" : "false";
+            case CURRENT: {
+                if (timer == null) {
+                    return "";
+                }
+                Long elapsed = timerManager.getCurrentElapsedMillis(player, timer);
+                if (elapsed == null) {
+                    return configManager.getTimeDefault();
+                }
+                return timerManager.formatMillisOrDefault(elapsed);
+            }
+            case CURRENT_SECONDS:
+            case CURRENT_MILLIS: {
+                Long elapsed = timer == null ? null : timerManager.getCurrentElapsedMillis(player, timer);
+                if (elapsed == null) {
+                    return "";
+                }
+                return String.valueOf(kind == CompiledPlaceholder.Kind.CURRENT_SECONDS ? elapsed / 1000L : elapsed);
             }
-            return timerManager.isActive(player, normalized) ? "true" : "false";
+            case BEST:
+                if (timer == null) {
+                    return configManager.getTimeDefault();
+                }
+                return timerManager.formatMillisOrDefault(timerManager.getBestTimeMillis(player, timer));
+            case BEST_SECONDS:
+            case BEST_MILLIS: {
+                Long millis = timer == null ? null : timerManager.getBestTimeMillis(player, timer);
+                if (millis == null) {
+                    return "";
+                }
+                return String.valueOf(kind == CompiledPlaceholder.Kind.BEST_SECONDS ? millis / 1000L : millis);
+            }
+            case TOP_NAME:
+            case TOP_TIME:
+                return renderTop(placeholder);
+            case RANK:
+            case PERCENTILE:
+                return renderRank(player, timer, kind == CompiledPlaceholder.Kind.PERCENTILE);
+            default:
+                return null;
         }
+    }
 
-        // current_* and best_*
-        if (params.startsWith("current_")) {
-            return handleCurrent(player, params.substring("current_".length()));
+    /**
+     * Returns the compiled form of params, parsing it on first sight.
+     * The cache is dropped whenever the configuration is reloaded.
+     */
+    private CompiledPlaceholder compiled(String params) {
+        int reloadCount = configManager.getReloadCount();
+        if (reloadCount != compiledReloadCount) {
+            compiledPlaceholders.clear();
+            compiledReloadCount = reloadCount;
         }
 
-        if (params.startsWith("best_")) {
-            return handleBest(player, params.substring("best_".length()));
+        CompiledPlaceholder placeholder = compiledPlaceholders.get(params);
+        if (placeholder != null) {
+            return placeholder;
         }
-
-        if (params.startsWith("top_")) {
-            return handleTop(params.substring("top_".length()));
+        placeholder = CompiledPlaceholder.compile(params, timerRegistry);
+        if (compiledPlaceholders.size() >= MAX_COMPILED_PLACEHOLDERS) {
+            compiledPlaceholders.clear();
         }
-
-        return null;
+        compiledPlaceholders.put(params, placeholder);
+        return placeholder;
     }
 
-    private String handleCurrent(Player player, String remainder) {
-        // current_<timerId>
-        // current_seconds_<timerId>
-        // current_millis_<timerId>
-        if (remainder.startsWith("seconds_")) {
-            String timerIdPart = remainder.substring("seconds_".length());
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "";
-            }
-            Long elapsed = timerManager.getCurrentElapsedMillis(player, normalized);
-            if (elapsed == null) {
-                return "";
-            }
-            return String.valueOf(elapsed / 1000L);
-        } else if (remainder.startsWith("millis_")) {
-            String timerIdPart = remainder.substring("millis_".length());
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "";
-            }
-            Long elapsed = timerManager.getCurrentElapsedMillis(player, normalized);
-            if (elapsed == null) {
-                return "";
-            }
-            return String.valueOf(elapsed);
-        } else {
-            String timerIdPart = remainder;
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "";
-            }
-            Long elapsed = timerManager.getCurrentElapsedMillis(player, normalized);
-            if (elapsed == null) {
-                return configManager.getTimeDefault();
-            }
-            return timerManager.formatMillisOrDefault(elapsed);
+    private String renderRank(Player player, TimerHandle timer, boolean percentile) {
+        // rank_<timerId>, percentile_<timerId>; empty if the player has no time or ranks are still loading
+        if (timer == null) {
+            return "";
         }
-    }
-
-    private String handleBest(Player player, String remainder) {
-        // best_<timerId>, best_seconds_<timerId>, best_millis_<timerId>
-        if (remainder.startsWith("seconds_")) {
-            String timerIdPart = remainder.substring("seconds_".length());
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "";
-            }
-            Long millis = timerManager.getBestTimeMillis(player, normalized);
-            if (millis == null) {
-                return "";
-            }
-            return String.valueOf(millis / 1000L);
-        } else if (remainder.startsWith("millis_")) {
-            String timerIdPart = remainder.substring("millis_".length());
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "";
-            }
-            Long millis = timerManager.getBestTimeMillis(player, normalized);
-            if (millis == null) {
-                return "";
-            }
-            return String.valueOf(millis);
-        } else {
-            String timerIdPart = remainder;
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return configManager.getTimeDefault();
-            }
-            Long millis = timerManager.getBestTimeMillis(player, normalized);
-            return timerManager.formatMillisOrDefault(millis);
+        Integer rank = timerManager.getRank(player, timer);
+        Integer total = timerManager.getRankedTotal(timer);
+        if (rank == null || total == null || rank == 0 || total == 0) {
+            return "";
+        }
+        if (!percentile) {
+            return String.valueOf(rank);
         }
+        // Share of ranked players at or behind this one: rank 1 is 100, last place is 100/total.
+        return String.valueOf((int) ((total - rank + 1) * 100L / total));
     }
 
-    private String handleTop(String remainder) {
+    private String renderTop(CompiledPlaceholder placeholder) {
         // top_<position>_<timerId>_name or _time
-        // We need to support timer IDs containing underscores. Parse as:
-        // tokens[0] = position, tokens[last] = suffix, tokens[1..last-1] joined with '_' = timerId
-        String[] tokens = remainder.split("_");
-        if (tokens.length < 3) {
+        List<LeaderboardEntry> leaderboard = timerManager.getLeaderboard(placeholder.getTimer());
+        int idx = placeholder.getPosition() - 1;
+        if (idx >= leaderboard.size()) {
             return "";
         }
-        try {
-            int position = Integer.parseInt(tokens[0]);
-            String suffix = tokens[tokens.length - 1]; // name or time
-
-            // Reconstruct timerId from tokens[1]..tokens[tokens.length-2]
-            StringBuilder timerIdBuilder = new StringBuilder();
-            for (int i = 1; i < tokens.length - 1; i++) {
-                if (i > 1) {
-                    timerIdBuilder.append('_');
-                }
-                timerIdBuilder.append(tokens[i]);
-            }
-            String timerIdPart = timerIdBuilder.toString();
-
-            String normalized = TimerIdNormalizer.normalize(timerIdPart);
-            if (normalized == null) {
-                return "";
-            }
-            List<LeaderboardEntry> leaderboard = timerManager.getLeaderboard(normalized);
-            int idx = position - 1;
-            if (idx < 0 || idx >= leaderboard.size()) {
-                return "";
-            }
-            LeaderboardEntry entry = leaderboard.get(idx);
-            if (suffix.equals("name")) {
-                return entry.getPlayerName();
-            } else if (suffix.equals("time")) {
-                return timerManager.formatMillisOrDefault(entry.getBestMillis());
-            } else {
-                return "";
-            }
-        } catch (NumberFormatException ex) {
-            return "";
+        LeaderboardEntry entry = leaderboard.get(idx);
+        if (placeholder.getKind() == CompiledPlaceholder.Kind.TOP_NAME) {
+            return entry.getPlayerName();
         }
+        return timerManager.formatMillisOrDefault(entry.getBestMillis());
     }
 }
@@ -2,16 +2,20 @@ package com.zenologia.ztimer.timer;
 
 public class ActiveTimer {
 
-    private final String timerId;
+    private final TimerHandle timer;
     private final long startMillis;
 
-    public ActiveTimer(String timerId, long startMillis) {
-        this.timerId = timerId;
+    public ActiveTimer(TimerHandle timer, long startMillis) {
+        this.timer = timer;
         this.startMillis = startMillis;
     }
 
+    public TimerHandle getTimer() {
+        return timer;
+    }
+
     public String getTimerId() {
-        return timerId;
+        return timer.getId();
     }
 
     public long getStartMillis() {
@@ -0,0 +1,254 @@
+package com.zenologia.ztimer.timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of best times, organized per player with one primitive slot per timer.
+ * Slots are indexed by TimerHandle.getIndex(), so lookups allocate nothing and
+ * invalidating a timer only touches that timer's slot in each player entry.
+ * Reads take no lock: the player map is a ConcurrentHashMap and each entry publishes its slots
+ * as a copy-on-write array. Writes lock only the player entry they change.
+ * Eviction is approximately least recently used: once the total entry count passes the limit,
+ * one pass drops the least recently read players until a tenth of the room is free again.
+ * Players known to have no time on a timer are stored as NO_RECORD.
+ */
+public class BestTimeCache {
+
+    static final long NO_RECORD = -1L;
+    // Returned by get() on a miss; never stored.
+    static final long MISSING = Long.MIN_VALUE;
+
+    private final int maxEntries;
+    // Eviction stops once the total is back down to this, so one pass covers many inserts.
+    private final int evictTarget;
+    private final Map<UUID, PlayerEntry> players = new ConcurrentHashMap<>();
+    private final AtomicInteger totalEntries = new AtomicInteger();
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    BestTimeCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.evictTarget = this.maxEntries - Math.max(1, this.maxEntries / 10);
+    }
+
+    /**
+     * @return the cached value (possibly NO_RECORD), or MISSING on a miss
+     */
+    long get(UUID playerUuid, TimerHandle timer) {
+        PlayerEntry entry = players.get(playerUuid);
+        long value = entry == null ? MISSING : entry.get(timer.getIndex());
+        if (value == MISSING) {
+            misses.increment();
+        } else {
+            entry.lastAccess = System.nanoTime();
+            hits.increment();
+        }
+        return value;
+    }
+
+    void put(UUID playerUuid, TimerHandle timer, long bestMillis) {
+        write(playerUuid, timer, bestMillis, false);
+    }
+
+    void putIfAbsent(UUID playerUuid, TimerHandle timer, long bestMillis) {
+        write(playerUuid, timer, bestMillis, true);
+    }
+
+    /**
+     * Lowers a cached best time to the candidate; does nothing if the entry is not cached.
+     */
+    void lowerIfPresent(UUID playerUuid, TimerHandle timer, long candidateMillis) {
+        PlayerEntry entry = players.get(playerUuid);
+        if (entry == null) {
+            return;
+        }
+        int slot = timer.getIndex();
+        synchronized (entry) {
+            long best = entry.get(slot);
+            if (entry.removed || best == MISSING) {
+                return;
+            }
+            entry.set(slot, best == NO_RECORD ? candidateMillis : Math.min(best, candidateMillis));
+        }
+    }
+
+    void removePlayer(UUID playerUuid) {
+        PlayerEntry entry = players.remove(playerUuid);
+        if (entry != null) {
+            retire(entry);
+        }
+    }
+
+    void removeTimer(TimerHandle timer) {
+        int slot = timer.getIndex();
+        for (Map.Entry<UUID, PlayerEntry> player : players.entrySet()) {
+            PlayerEntry entry = player.getValue();
+            boolean empty;
+            synchronized (entry) {
+                if (entry.removed || !entry.clear(slot)) {
+                    continue;
+                }
+                totalEntries.decrementAndGet();
+                empty = entry.count == 0;
+            }
+            if (empty && players.remove(player.getKey(), entry)) {
+                retire(entry);
+            }
+        }
+    }
+
+    public int size() {
+        return totalEntries.get();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void write(UUID playerUuid, TimerHandle timer, long bestMillis, boolean onlyIfAbsent) {
+        int slot = timer.getIndex();
+        while (true) {
+            PlayerEntry entry = players.computeIfAbsent(playerUuid, k -> new PlayerEntry());
+            synchronized (entry) {
+                if (entry.removed) {
+                    // Evicted or removed between lookup and lock; retry with a fresh entry.
+                    continue;
+                }
+                if (onlyIfAbsent && entry.get(slot) != MISSING) {
+                    return;
+                }
+                entry.lastAccess = System.nanoTime();
+                if (!entry.set(slot, bestMillis)) {
+                    return;
+                }
+            }
+            if (totalEntries.incrementAndGet() > maxEntries) {
+                evictOverflow(playerUuid);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Marks an entry that has left the map as dead and takes its slots off the total.
+     */
+    private int retire(PlayerEntry entry) {
+        synchronized (entry) {
+            if (entry.removed) {
+                return 0;
+            }
+            entry.removed = true;
+            totalEntries.addAndGet(-entry.count);
+            return entry.count;
+        }
+    }
+
+    private void evictOverflow(UUID keep) {
+        synchronized (evictionLock) {
+            if (totalEntries.get() <= maxEntries) {
+                // Another writer already made room.
+                return;
+            }
+            // Access times keep changing under concurrent reads, so sort a snapshot of them.
+            List<Candidate> candidates = new ArrayList<>(players.size());
+            for (Map.Entry<UUID, PlayerEntry> player : players.entrySet()) {
+                candidates.add(new Candidate(player.getKey(), player.getValue()));
+            }
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            for (Candidate candidate : candidates) {
+                if (totalEntries.get() <= evictTarget) {
+                    break;
+                }
+                if (candidate.playerUuid.equals(keep) || !players.remove(candidate.playerUuid, candidate.entry)) {
+                    continue;
+                }
+                evictions.add(retire(candidate.entry));
+            }
+        }
+    }
+
+    private static final class Candidate {
+
+        private final UUID playerUuid;
+        private final PlayerEntry entry;
+        private final long lastAccess;
+
+        private Candidate(UUID playerUuid, PlayerEntry entry) {
+            this.playerUuid = playerUuid;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+
+    private static final class PlayerEntry {
+
+        // Replaced, never mutated, so readers see a complete array without locking.
+        private volatile long[] values = new long[0];
+        // Guarded by this entry's monitor.
+        private int count;
+        private boolean removed;
+        // Approximate; written without locking by readers.
+        private volatile long lastAccess = System.nanoTime();
+
+        long get(int slot) {
+            long[] current = values;
+            return slot < current.length ? current[slot] : MISSING;
+        }
+
+        /**
+         * @return true if the slot was previously empty
+         */
+        boolean set(int slot, long value) {
+            long[] current = values;
+            long[] next = Arrays.copyOf(current, Math.max(slot + 1, current.length));
+            if (current.length < next.length) {
+                Arrays.fill(next, current.length, next.length, MISSING);
+            }
+            boolean added = next[slot] == MISSING;
+            next[slot] = value;
+            values = next;
+            if (added) {
+                count++;
+            }
+            return added;
+        }
+
+        /**
+         * @return true if the slot held a value
+         */
+        boolean clear(int slot) {
+            long[] current = values;
+            if (slot >= current.length || current[slot] == MISSING) {
+                return false;
+            }
+            long[] next = current.clone();
+            next[slot] = MISSING;
+            values = next;
+            count--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.zenologia.ztimer.timer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import com.zenologia.ztimer.config.ConfigManager;
+
+/**
+ * Resolved exit destination per timer: the timer's exit, else the configured fallback,
+ * else the spawn of world "world" or the first loaded world.
+ * Worlds are bound on first use and the cache is dropped on reload and whenever a world
+ * loads or unloads, so a world that appears after a reload is picked up. Main thread only.
+ */
+class ExitDestinations {
+
+    // Cached for timers whose chain ends at no world at all; the player's own world is used then.
+    private static final Destination NONE = new Destination(null, null);
+
+    private final ConfigManager configManager;
+    private final Map<TimerHandle, Destination> byTimer = new HashMap<>();
+    private Destination fallback;
+    private int reloadCount = -1;
+
+    ExitDestinations(ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+
+    /**
+     * @return where to send a player leaving the timer, or null if no world is available
+     */
+    Location resolve(TimerHandle timer) {
+        int currentReload = configManager.getReloadCount();
+        if (currentReload != reloadCount) {
+            invalidate();
+            reloadCount = currentReload;
+        }
+
+        Destination destination = byTimer.get(timer);
+        if (destination == null) {
+            Location exit = timer == null ? null : configManager.getExitLocationForTimer(timer);
+            destination = exit != null ? new Destination(exit, null) : fallback();
+            byTimer.put(timer, destination);
+        }
+        return destination.toLocation();
+    }
+
+    void invalidate() {
+        byTimer.clear();
+        fallback = null;
+    }
+
+    private Destination fallback() {
+        if (fallback != null) {
+            return fallback;
+        }
+
+        Location configured = configManager.isFallbackExitEnabled() ? configManager.getFallbackExitLocation() : null;
+        if (configured != null) {
+            fallback = new Destination(configured, null);
+            return fallback;
+        }
+
+        World overworld = Bukkit.getWorld("world");
+        if (overworld == null) {
+            List<World> worlds = Bukkit.getWorlds();
+            overworld = worlds.isEmpty() ? null : worlds.get(0);
+        }
+        fallback = overworld == null ? NONE : new Destination(null, overworld);
+        return fallback;
+    }
+
+    private static final class Destination {
+
+        private final Location location;
+        // Spawn can be moved at runtime, so only the world is cached for spawn destinations.
+        private final World spawnWorld;
+
+        private Destination(Location location, World spawnWorld) {
+            this.location = location;
+            this.spawnWorld = spawnWorld;
+        }
+
+        Location toLocation() {
+            if (location != null) {
+                return location.clone();
+            }
+            return spawnWorld == null ? null : spawnWorld.getSpawnLocation();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.zenologia.ztimer.timer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.zenologia.ztimer.db.LeaderboardEntry;
+
+/**
+ * In-memory leaderboard for one timer: the top N entries plus a tail buffer of the next ones.
+ * New personal bests and resets are applied as ordered inserts and removals, so storage is
+ * only read again when removals drain the tail and the top N can no longer be filled.
+ * Readers get an immutable snapshot of the top N; mutations are serialized on this object.
+ */
+public class Leaderboard {
+
+    // Shared so a leaderboard rebuilt after a reset never reuses a version an old one published.
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingLong(LeaderboardEntry::getBestMillis)
+            .thenComparing(LeaderboardEntry::getPlayerUuid);
+
+    private final int topN;
+    private final int capacity;
+    private final List<LeaderboardEntry> entries = new ArrayList<>();
+
+    // Changes applied while a load is in flight, replayed onto the loaded rows.
+    private final List<Change> replayLog = new ArrayList<>();
+    private int loadsInFlight;
+
+    // Refresh coalescing: at most one refresh runs, later requests collapse into one trailing refresh.
+    private boolean refreshRunning;
+    private boolean refreshQueued;
+    private long lastRefreshStart;
+
+    private boolean loaded;
+    // True when entries hold every stored row for the timer, so inserts past the end are valid.
+    private boolean complete;
+
+    private volatile List<LeaderboardEntry> top = Collections.emptyList();
+    private volatile long version;
+
+    Leaderboard(int topN, int tailSize) {
+        this.topN = Math.max(0, topN);
+        this.capacity = this.topN + Math.max(0, tailSize);
+    }
+
+    /**
+     * @return how many rows a load should request from storage
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    boolean hasSize(int topN, int tailSize) {
+        return this.topN == Math.max(0, topN) && capacity == this.topN + Math.max(0, tailSize);
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public List<LeaderboardEntry> getTop() {
+        return top;
+    }
+
+    /**
+     * Changes on every change to the top N snapshot; unique across all leaderboards.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Registers a refresh request.
+     *
+     * @return 0 to start a refresh now, a positive delay in ms to schedule the trailing refresh,
+     * or -1 if an in-flight or queued refresh already covers this request
+     */
+    synchronized long requestRefresh(long nowMillis, long debounceMillis) {
+        if (refreshQueued) {
+            return -1L;
+        }
+        if (refreshRunning) {
+            // Scheduled by completeRefresh once the running one returns.
+            refreshQueued = true;
+            return -1L;
+        }
+        long wait = lastRefreshStart + debounceMillis - nowMillis;
+        if (wait > 0) {
+            refreshQueued = true;
+            return wait;
+        }
+        refreshRunning = true;
+        lastRefreshStart = nowMillis;
+        return 0L;
+    }
+
+    /**
+     * Marks a queued refresh as started.
+     */
+    synchronized void startQueuedRefresh(long nowMillis) {
+        refreshQueued = false;
+        refreshRunning = true;
+        lastRefreshStart = nowMillis;
+    }
+
+    /**
+     * @return the delay in ms before the trailing refresh should start, or -1 if none was requested
+     */
+    synchronized long completeRefresh(long nowMillis, long debounceMillis) {
+        refreshRunning = false;
+        if (!refreshQueued) {
+            return -1L;
+        }
+        return Math.max(0L, lastRefreshStart + debounceMillis - nowMillis);
+    }
+
+    synchronized void beginLoad() {
+        loadsInFlight++;
+    }
+
+    /**
+     * Replaces the contents with rows read from storage and replays changes made during the load.
+     *
+     * @return true if a replayed removal drained the buffer and another load is needed
+     */
+    synchronized boolean finishLoad(List<LeaderboardEntry> rows) {
+        entries.clear();
+        entries.addAll(rows);
+        entries.sort(ORDER);
+        complete = rows.size() < capacity;
+        loaded = true;
+
+        boolean needsReload = false;
+        for (Change change : replayLog) {
+            if (change.removal) {
+                needsReload |= remove(change.playerUuid);
+            } else {
+                insert(change.entry);
+            }
+        }
+        endLoad();
+        publish();
+        return needsReload;
+    }
+
+    synchronized void failLoad() {
+        endLoad();
+    }
+
+    synchronized void applyImprovement(UUID playerUuid, String playerName, long bestMillis) {
+        LeaderboardEntry entry = new LeaderboardEntry(playerUuid, playerName, bestMillis);
+        if (loadsInFlight > 0) {
+            replayLog.add(new Change(entry, playerUuid, false));
+        }
+        if (loaded && insert(entry)) {
+            publish();
+        }
+    }
+
+    /**
+     * @return true if the buffer can no longer fill the top N and storage must be read again
+     */
+    synchronized boolean applyRemoval(UUID playerUuid) {
+        if (loadsInFlight > 0) {
+            replayLog.add(new Change(null, playerUuid, true));
+        }
+        if (!loaded) {
+            return false;
+        }
+        int before = entries.size();
+        boolean needsReload = remove(playerUuid);
+        if (entries.size() != before) {
+            publish();
+        }
+        return needsReload;
+    }
+
+    private void endLoad() {
+        if (--loadsInFlight <= 0) {
+            loadsInFlight = 0;
+            replayLog.clear();
+        }
+    }
+
+    private boolean insert(LeaderboardEntry entry) {
+        int existing = indexOf(entry.getPlayerUuid());
+        if (existing >= 0) {
+            if (entries.get(existing).getBestMillis() <= entry.getBestMillis()) {
+                return false;
+            }
+            entries.remove(existing);
+        }
+
+        int position = Collections.binarySearch(entries, entry, ORDER);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position >= entries.size() && !complete && existing < 0) {
+            // A new entry past the loaded rows falls somewhere in the rows we never loaded.
+            // An improved entry was already loaded and only moved up, so it always stays.
+            return false;
+        }
+        entries.add(position, entry);
+        if (entries.size() > capacity) {
+            entries.remove(entries.size() - 1);
+            complete = false;
+        }
+        return true;
+    }
+
+    private boolean remove(UUID playerUuid) {
+        int index = indexOf(playerUuid);
+        if (index < 0) {
+            return false;
+        }
+        entries.remove(index);
+        return !complete && entries.size() < topN;
+    }
+
+    private int indexOf(UUID playerUuid) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getPlayerUuid().equals(playerUuid)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void publish() {
+        int size = Math.min(topN, entries.size());
+        top = Collections.unmodifiableList(new ArrayList<>(entries.subList(0, size)));
+        version = VERSIONS.incrementAndGet();
+    }
+
+    private static final class Change {
+
+        private final LeaderboardEntry entry;
+        private final UUID playerUuid;
+        private final boolean removal;
+
+        private Change(LeaderboardEntry entry, UUID playerUuid, boolean removal) {
+            this.entry = entry;
+            this.playerUuid = playerUuid;
+            this.removal = removal;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.zenologia.ztimer.timer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.zenologia.ztimer.db.LeaderboardEntry;
+
+/**
+ * Small cache of keyset-paginated leaderboard pages for one timer.
+ * The last entry of a cached page is the cursor for the next one, so reading page N only
+ * queries storage for the pages between the nearest cached page before it and N.
+ * Any change to the timer's times drops every page, since positions shift.
+ */
+public class LeaderboardPages {
+
+    private static final int MAX_CACHED_PAGES = 32;
+
+    private final int pageSize;
+    private final Map<Integer, List<LeaderboardEntry>> pages = new LinkedHashMap<Integer, List<LeaderboardEntry>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<LeaderboardEntry>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    // Bumped on invalidation so loads started before a change don't store stale pages.
+    private long generation;
+
+    LeaderboardPages(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the cached page (1-based), or null if it is not cached
+     */
+    synchronized List<LeaderboardEntry> get(int page) {
+        return pages.get(page);
+    }
+
+    /**
+     * @return the highest cached page number below the given one, or 0 if none is cached
+     */
+    synchronized int nearestCachedBefore(int page) {
+        int nearest = 0;
+        for (int cached : pages.keySet()) {
+            if (cached < page && cached > nearest) {
+                nearest = cached;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Splits consecutive rows into pages starting at firstPage and caches them,
+     * unless the timer changed since the load started.
+     */
+    synchronized void store(long loadGeneration, int firstPage, List<LeaderboardEntry> rows) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        for (int start = 0, page = firstPage; start < rows.size(); start += pageSize, page++) {
+            int end = Math.min(rows.size(), start + pageSize);
+            pages.put(page, Collections.unmodifiableList(rows.subList(start, end)));
+        }
+    }
+
+    synchronized void invalidate() {
+        pages.clear();
+        generation++;
+    }
+}
@@ -0,0 +1,208 @@
+package com.zenologia.ztimer.timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Order-statistic index over every best time of one timer.
+ * Times are grouped into one-second buckets counted by a Fenwick tree; each bucket keeps its
+ * times sorted, so "how many players are faster" is a prefix sum plus one binary search.
+ * Ties share a rank. Built once from storage, then kept in step with improvements and resets.
+ */
+public class RankIndex {
+
+    private static final long BUCKET_MILLIS = 1000L;
+    // Times past ~12 days share the last bucket; its sorted array still ranks them exactly.
+    private static final int MAX_BUCKETS = 1 << 20;
+
+    private final Map<UUID, Long> bestByPlayer = new HashMap<>();
+    private final Map<Integer, Bucket> buckets = new HashMap<>();
+    private long[] tree = new long[1];
+
+    // Changes made while the cold-start load runs, replayed onto the loaded data.
+    private final List<Object[]> replayLog = new ArrayList<>();
+    private boolean loading;
+    private boolean loaded;
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return false if a load is already running or finished
+     */
+    synchronized boolean beginLoad() {
+        if (loading || loaded) {
+            return false;
+        }
+        loading = true;
+        return true;
+    }
+
+    synchronized void finishLoad(Map<UUID, Long> stored) {
+        for (Map.Entry<UUID, Long> entry : stored.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        for (Object[] change : replayLog) {
+            if (change[1] == null) {
+                remove((UUID) change[0]);
+            } else {
+                improve((UUID) change[0], (Long) change[1]);
+            }
+        }
+        replayLog.clear();
+        loading = false;
+        loaded = true;
+    }
+
+    synchronized void failLoad() {
+        replayLog.clear();
+        loading = false;
+    }
+
+    synchronized void applyImprovement(UUID playerUuid, long bestMillis) {
+        if (loading) {
+            replayLog.add(new Object[]{playerUuid, bestMillis});
+        }
+        if (loaded) {
+            improve(playerUuid, bestMillis);
+        }
+    }
+
+    synchronized void applyRemoval(UUID playerUuid) {
+        if (loading) {
+            replayLog.add(new Object[]{playerUuid, null});
+        }
+        if (loaded) {
+            remove(playerUuid);
+        }
+    }
+
+    /**
+     * @return the player's 1-based rank, or 0 if they have no time
+     */
+    synchronized int getRank(UUID playerUuid) {
+        Long best = bestByPlayer.get(playerUuid);
+        if (best == null) {
+            return 0;
+        }
+        int bucket = bucketOf(best);
+        Bucket entries = buckets.get(bucket);
+        return (int) (prefix(bucket - 1) + entries.countLess(best)) + 1;
+    }
+
+    synchronized int getTotal() {
+        return bestByPlayer.size();
+    }
+
+    private void improve(UUID playerUuid, long bestMillis) {
+        Long current = bestByPlayer.get(playerUuid);
+        if (current != null && current <= bestMillis) {
+            return;
+        }
+        put(playerUuid, bestMillis);
+    }
+
+    private void put(UUID playerUuid, long bestMillis) {
+        remove(playerUuid);
+        bestByPlayer.put(playerUuid, bestMillis);
+        int bucket = bucketOf(bestMillis);
+        if (bucket + 1 >= tree.length) {
+            growTree(bucket);
+        }
+        buckets.computeIfAbsent(bucket, k -> new Bucket()).add(bestMillis);
+        addToTree(bucket, 1);
+    }
+
+    private void remove(UUID playerUuid) {
+        Long previous = bestByPlayer.remove(playerUuid);
+        if (previous == null) {
+            return;
+        }
+        int bucket = bucketOf(previous);
+        Bucket entries = buckets.get(bucket);
+        entries.remove(previous);
+        if (entries.size == 0) {
+            buckets.remove(bucket);
+        }
+        addToTree(bucket, -1);
+    }
+
+    private static int bucketOf(long bestMillis) {
+        return (int) Math.min(MAX_BUCKETS - 1, Math.max(0L, bestMillis / BUCKET_MILLIS));
+    }
+
+    private void addToTree(int bucket, int delta) {
+        for (int i = bucket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sum of counts for buckets 0..bucket inclusive.
+     */
+    private long prefix(int bucket) {
+        long sum = 0;
+        for (int i = Math.min(bucket + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void growTree(int bucket) {
+        int size = Math.min(MAX_BUCKETS, Math.max(bucket + 1, (tree.length - 1) * 2));
+        tree = new long[size + 1];
+        for (Map.Entry<Integer, Bucket> entry : buckets.entrySet()) {
+            addToTree(entry.getKey(), entry.getValue().size);
+        }
+    }
+
+    private static final class Bucket {
+
+        private long[] times = new long[4];
+        private int size;
+
+        void add(long time) {
+            int position = insertionPoint(time);
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+            }
+            System.arraycopy(times, position, times, position + 1, size - position);
+            times[position] = time;
+            size++;
+        }
+
+        void remove(long time) {
+            int position = insertionPoint(time);
+            if (position < size && times[position] == time) {
+                System.arraycopy(times, position + 1, times, position, size - position - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Number of stored times strictly below the given one.
+         */
+        int countLess(long time) {
+            return insertionPoint(time);
+        }
+
+        private int insertionPoint(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
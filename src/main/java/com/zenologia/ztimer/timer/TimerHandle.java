@@ -0,0 +1,35 @@
+package com.zenologia.ztimer.timer;
+
+/**
+ * Canonical, interned reference to a timer id. Handles are issued once per normalized id by
+ * TimerRegistry and stay the same across reloads, so they compare by identity.
+ */
+public final class TimerHandle {
+
+    private final String id;
+    private final int index;
+
+    TimerHandle(String id, int index) {
+        this.id = id;
+        this.index = index;
+    }
+
+    /**
+     * @return the normalized timer id, as used in config and storage
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return a small, dense index unique to this timer, usable as an array slot
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -1,9 +1,13 @@
 package com.zenologia.ztimer.timer;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
@@ -13,53 +17,101 @@ import org.bukkit.entity.Player;
 
 import com.zenologia.ztimer.ZTimerPlugin;
 import com.zenologia.ztimer.config.ConfigManager;
+import com.zenologia.ztimer.config.TimerDefinition;
+import com.zenologia.ztimer.db.AsyncStorage;
+import com.zenologia.ztimer.db.BestTimeUpdate;
+import com.zenologia.ztimer.db.BestTimeWriteQueue;
 import com.zenologia.ztimer.db.LeaderboardEntry;
 import com.zenologia.ztimer.db.Storage;
-import com.zenologia.ztimer.util.TimeFormatter;
-import com.zenologia.ztimer.util.TimerIdNormalizer;
+import com.zenologia.ztimer.util.MessageTemplate;
 
 public class TimerManager {
 
     private final ZTimerPlugin plugin;
     private final Storage storage;
+    private final AsyncStorage asyncStorage;
     private final ConfigManager configManager;
     private final PendingTeleportManager pendingTeleportManager;
+    private final TimerRegistry timerRegistry;
 
     private final Map<UUID, ActiveTimer> activeTimers = new ConcurrentHashMap<>();
 
-    // Cache of best times (ms) per player+timer
-    private final Map<String, Long> bestTimeCache = new ConcurrentHashMap<>();
+    // Active players (uuid -> name) per timer, kept in step with activeTimers for the global placeholders.
+    private final Map<TimerHandle, Map<UUID, String>> activePlayersByTimer = new ConcurrentHashMap<>();
 
-    // Leaderboard cache per timer
-    private final Map<String, List<LeaderboardEntry>> leaderboardCache = new ConcurrentHashMap<>();
+    private static final long NO_RECORD = BestTimeCache.NO_RECORD;
+    private static final long MISSING = BestTimeCache.MISSING;
+    // Upper bound on the pages one leaderboard read fetches when stepping to a deep page.
+    private static final int MAX_PAGES_PER_READ = 10;
+
+    // Cache of best times (ms) per player+timer, bounded by cache.best_times.max_entries
+    private final BestTimeCache bestTimeCache;
+
+    // Keys with an async cache fill in flight, so concurrent misses only load once.
+    private final Set<String> pendingBestTimeLoads = ConcurrentHashMap.newKeySet();
+
+    // In-memory leaderboard per timer, updated in place on improvements and resets
+    private final Map<TimerHandle, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    // Recently read pages of /ztimer top per timer, dropped whenever the timer's times change
+    private final Map<TimerHandle, LeaderboardPages> leaderboardPages = new ConcurrentHashMap<>();
+
+    // Rank of every stored time per timer, built on first use and kept in step like leaderboards
+    private final Map<TimerHandle, RankIndex> rankIndexes = new ConcurrentHashMap<>();
+
+    // Null when storage.write_behind.enabled is false; stops then write through one task each.
+    private final BestTimeWriteQueue writeQueue;
+
+    // Where cancel and relog send players; main thread only
+    private final ExitDestinations exitDestinations;
 
     public TimerManager(ZTimerPlugin plugin,
-                        Storage storage,
+                        AsyncStorage asyncStorage,
                         ConfigManager configManager,
                         PendingTeleportManager pendingTeleportManager) {
         this.plugin = plugin;
-        this.storage = storage;
+        this.storage = asyncStorage.getStorage();
+        this.asyncStorage = asyncStorage;
         this.configManager = configManager;
         this.pendingTeleportManager = pendingTeleportManager;
+        this.timerRegistry = configManager.getTimerRegistry();
+        this.bestTimeCache = new BestTimeCache(configManager.getBestTimeCacheMaxEntries());
+        this.exitDestinations = new ExitDestinations(configManager);
+
+        if (configManager.isWriteBehindEnabled()) {
+            this.writeQueue = new BestTimeWriteQueue(plugin, asyncStorage, configManager, this::onBestTimesFlushed);
+            this.writeQueue.start();
+        } else {
+            this.writeQueue = null;
+        }
     }
 
-    private String cacheKey(UUID uuid, String timerId) {
-        return uuid.toString() + "|" + timerId;
+    /**
+     * Flushes any buffered best times. Must run before storage is shut down.
+     */
+    public void shutdown() {
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+        }
     }
 
-    public TimerStartResult startTimer(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return null;
-        }
+    private String cacheKey(UUID uuid, TimerHandle timer) {
+        return uuid.toString() + "|" + timer.getId();
+    }
+
+    public TimerRegistry getTimerRegistry() {
+        return timerRegistry;
+    }
 
+    public TimerStartResult startTimer(Player player, TimerHandle timer) {
+        String timerId = timer.getId();
         ActiveTimer active = activeTimers.get(player.getUniqueId());
         if (active != null) {
-            if (active.getTimerId().equals(timerId)) {
+            if (active.getTimer() == timer) {
                 return TimerStartResult.alreadyRunning(timerId);
             }
 
-            activeTimers.put(player.getUniqueId(), new ActiveTimer(timerId, System.currentTimeMillis()));
+            activate(player, timer);
 
             if (configManager.isDebugEnabled() && configManager.isDebugLogStartStop()) {
                 plugin.getLogger().info("Replaced timer '" + active.getTimerId() + "' with '" + timerId + "' for " + player.getName());
@@ -67,7 +119,7 @@ public class TimerManager {
             return TimerStartResult.replaced(timerId, active.getTimerId());
         }
 
-        activeTimers.put(player.getUniqueId(), new ActiveTimer(timerId, System.currentTimeMillis()));
+        activate(player, timer);
 
         if (configManager.isDebugEnabled() && configManager.isDebugLogStartStop()) {
             plugin.getLogger().info("Started timer '" + timerId + "' for " + player.getName());
@@ -75,38 +127,35 @@ public class TimerManager {
         return TimerStartResult.started(timerId);
     }
 
-    public Long stopTimer(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return null;
-        }
-
+    public Long stopTimer(Player player, TimerHandle timer) {
+        String timerId = timer.getId();
         ActiveTimer active = activeTimers.get(player.getUniqueId());
-        if (active == null || !active.getTimerId().equals(timerId)) {
+        if (active == null || active.getTimer() != timer) {
             return null;
         }
 
-        activeTimers.remove(player.getUniqueId());
+        deactivate(player.getUniqueId());
         long elapsed = active.getElapsedMillis();
         long now = System.currentTimeMillis();
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                Long currentBest = storage.getBestTime(player.getUniqueId(), timerId);
-                boolean improved = currentBest == null || elapsed < currentBest;
-                if (improved) {
-                    storage.updateBestTime(player.getUniqueId(), player.getName(), timerId, elapsed, now);
-                    bestTimeCache.put(cacheKey(player.getUniqueId(), timerId), elapsed);
-                    refreshLeaderboardCache(timerId);
-                }
-            } catch (Exception ex) {
-                if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
-                    plugin.getLogger().severe("Error updating best time for " + player.getName() +
-                            " timer '" + timerId + "': " + ex.getMessage());
-                    ex.printStackTrace();
-                }
+        if (writeQueue != null) {
+            // Skip the write entirely when the cache already knows this is not an improvement.
+            long cachedBest = bestTimeCache.get(player.getUniqueId(), timer);
+            if (cachedBest == MISSING || cachedBest == NO_RECORD || elapsed < cachedBest) {
+                bestTimeCache.lowerIfPresent(player.getUniqueId(), timer, elapsed);
+                writeQueue.submit(new BestTimeUpdate(player.getUniqueId(), player.getName(), timerId, elapsed, now));
             }
-        });
+        } else {
+            asyncStorage.submitBestTime(player.getUniqueId(), player.getName(), timerId, elapsed, now)
+                    .whenComplete((improved, ex) -> {
+                        if (ex != null) {
+                            logDbError("Error updating best time for " + player.getName() + " timer '" + timerId + "'", ex);
+                        } else if (improved) {
+                            bestTimeCache.put(player.getUniqueId(), timer, elapsed);
+                            applyImprovement(timer, player.getUniqueId(), player.getName(), elapsed);
+                        }
+                    });
+        }
 
         if (configManager.isDebugEnabled() && configManager.isDebugLogStartStop()) {
             plugin.getLogger().info("Stopped timer '" + timerId + "' for " + player.getName() +
@@ -116,65 +165,58 @@ public class TimerManager {
         return elapsed;
     }
 
-    public boolean resetTimer(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return false;
-        }
+    public boolean resetTimer(Player player, TimerHandle timer) {
+        String timerId = timer.getId();
 
         // Remove active timer if matching
         ActiveTimer active = activeTimers.get(player.getUniqueId());
-        if (active != null && active.getTimerId().equals(timerId)) {
-            activeTimers.remove(player.getUniqueId());
+        if (active != null && active.getTimer() == timer) {
+            deactivate(player.getUniqueId());
         }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                storage.resetBestTime(player.getUniqueId(), timerId);
-                bestTimeCache.remove(cacheKey(player.getUniqueId(), timerId));
-                refreshLeaderboardCache(timerId);
-            } catch (Exception ex) {
-                if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
-                    plugin.getLogger().severe("Error resetting best time for " + player.getName() +
-                            " timer '" + timerId + "': " + ex.getMessage());
-                    ex.printStackTrace();
-                }
+        // With write-behind the reset goes through the queue so it cannot race a flush.
+        UUID uuid = player.getUniqueId();
+        CompletableFuture<Void> reset = writeQueue != null
+                ? asyncStorage.run(() -> writeQueue.reset(uuid, timerId))
+                : asyncStorage.resetBestTime(uuid, timerId);
+        reset.whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                logDbError("Error resetting best time for " + player.getName() + " timer '" + timerId + "'", ex);
+                return;
             }
+            bestTimeCache.put(player.getUniqueId(), timer, NO_RECORD);
+            applyRemoval(timer, player.getUniqueId());
         });
 
         return true;
     }
 
-    public boolean cancelTimer(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return false;
-        }
-
+    public boolean cancelTimer(Player player, TimerHandle timer) {
         ActiveTimer active = activeTimers.get(player.getUniqueId());
-        if (active == null || !active.getTimerId().equals(timerId)) {
+        if (active == null || active.getTimer() != timer) {
             return false;
         }
 
-        activeTimers.remove(player.getUniqueId());
+        deactivate(player.getUniqueId());
 
-        teleportToExit(player, timerId);
+        teleportToExit(player, timer);
 
         if (configManager.isDebugEnabled() && configManager.isDebugLogStartStop()) {
-            plugin.getLogger().info("Canceled timer '" + timerId + "' for " + player.getName());
+            plugin.getLogger().info("Canceled timer '" + timer.getId() + "' for " + player.getName());
         }
 
         return true;
     }
 
     public void handleLogout(Player player) {
-        ActiveTimer active = activeTimers.remove(player.getUniqueId());
+        ActiveTimer active = deactivate(player.getUniqueId());
         if (active != null) {
-            // Determine relog commands from config (optional)
-            List<String> relogCommands = configManager.getRelogCommandsForTimer(active.getTimerId());
+            // Relog and logout commands come from the timer's compiled definition (optional)
+            TimerDefinition definition = configManager.getTimerDefinition(active.getTimer());
+            List<String> relogCommands = definition == null ? Collections.emptyList() : definition.getRelogCommands();
 
-            // Determine logout commands from config (optional) and run them immediately
-            List<String> logoutCommands = configManager.getLogoutCommandsForTimer(active.getTimerId());
+            // Run logout commands immediately
+            List<MessageTemplate> logoutCommands = definition == null ? Collections.emptyList() : definition.getLogoutCommandTemplates();
             if (logoutCommands != null && !logoutCommands.isEmpty()) {
                 try {
                     // Run logout commands immediately on the main thread (player still available in event)
@@ -198,63 +240,95 @@ public class TimerManager {
         }
     }
 
+    /**
+     * Drops the player's cached best times; they are preloaded again on the next login.
+     */
+    public void handleQuit(Player player) {
+        bestTimeCache.removePlayer(player.getUniqueId());
+    }
+
+    public BestTimeCache getBestTimeCache() {
+        return bestTimeCache;
+    }
+
     public void handleJoin(Player player) {
         // Update stored player_name on every join
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                storage.updatePlayerName(player.getUniqueId(), player.getName());
-            } catch (Exception ex) {
-                if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
-                    plugin.getLogger().severe("Error updating player_name on join for " + player.getName() + ": " + ex.getMessage());
-                    ex.printStackTrace();
-                }
+        asyncStorage.updatePlayerName(player.getUniqueId(), player.getName()).whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                logDbError("Error updating player_name on join for " + player.getName(), ex);
             }
         });
 
         PendingTeleport pt = pendingTeleportManager.consumePendingTeleport(player.getUniqueId());
         if (pt != null) {
             // teleport immediately on main thread
-            Bukkit.getScheduler().runTask(plugin, () -> teleportToExit(player, pt.getTimerId()));
-
-            // Run relog commands 1 tick later so player entity is fully initialized for commands targeting the player
-            Bukkit.getScheduler().runTaskLater(plugin, () -> runRelogCommands(player, pt.getCommands()), 1L);
+            TimerHandle timer = timerRegistry.handle(pt.getTimerId());
+            // Run relog commands 1 tick after the teleport so player entity is fully initialized for commands targeting the player
+            List<MessageTemplate> relogCommands = relogCommandTemplates(timer, pt.getCommands());
+            Bukkit.getScheduler().runTask(plugin, () -> teleportToExit(player, timer).thenRun(() ->
+                    Bukkit.getScheduler().runTaskLater(plugin, () -> runRelogCommands(player, relogCommands), 1L)));
         }
     }
 
-    private void teleportToExit(Player player, String timerId) {
-        Location target = configManager.getExitLocationForTimer(timerId);
+    /**
+     * Drops resolved exit destinations; called when a world loads or unloads.
+     */
+    public void invalidateExitDestinations() {
+        exitDestinations.invalidate();
+    }
 
-        if (target == null && configManager.isFallbackExitEnabled()) {
-            target = configManager.getFallbackExitLocation();
-        }
+    /**
+     * @return completes on the main thread once the player has been teleported
+     */
+    private CompletableFuture<Void> teleportToExit(Player player, TimerHandle timer) {
+        Location target = exitDestinations.resolve(timer);
 
         if (target == null) {
-            // Final fallback: overworld spawn (world "world" or first world), then player's world spawn
-            World overworld = Bukkit.getWorld("world");
-            if (overworld == null && !Bukkit.getWorlds().isEmpty()) {
-                overworld = Bukkit.getWorlds().get(0);
-            }
-            if (overworld != null) {
-                target = overworld.getSpawnLocation();
-            } else {
-                World world = player.getWorld();
-                if (world != null) {
-                    target = world.getSpawnLocation();
-                }
+            // Final fallback: player's world spawn
+            World world = player.getWorld();
+            if (world != null) {
+                target = world.getSpawnLocation();
             }
         }
 
-        if (target != null) {
+        if (target == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        World world = target.getWorld();
+        if (world == null || world.isChunkLoaded(target.getBlockX() >> 4, target.getBlockZ() >> 4)) {
             player.teleport(target);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Load the destination chunk asynchronously instead of having teleport() load it on the main thread.
+        // Paper completes the future on the main thread.
+        Location destination = target;
+        return world.getChunkAtAsync(destination).handle((chunk, ex) -> {
+            if (player.isOnline()) {
+                player.teleport(destination);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Reuses the compiled commands when the pending teleport still matches the current config;
+     * commands persisted under an older config are compiled on the spot.
+     */
+    private List<MessageTemplate> relogCommandTemplates(TimerHandle timer, List<String> commands) {
+        TimerDefinition definition = timer == null ? null : configManager.getTimerDefinition(timer);
+        if (definition != null && definition.getRelogCommands().equals(commands)) {
+            return definition.getRelogCommandTemplates();
         }
+        return TimerDefinition.compileCommands(commands);
     }
 
-    private void runRelogCommands(Player player, List<String> commands) {
+    private void runRelogCommands(Player player, List<MessageTemplate> commands) {
         if (commands == null || commands.isEmpty()) return;
-        for (String rawCmd : commands) {
-            if (rawCmd == null || rawCmd.trim().isEmpty()) continue;
-            String cmd = rawCmd.replace("%player%", player.getName())
-                    .replace("%player_uuid%", player.getUniqueId().toString());
+        String uuid = player.getUniqueId().toString();
+        for (MessageTemplate template : commands) {
+            String cmd = template.render(player.getName(), uuid);
             try {
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd);
             } catch (Exception ex) {
@@ -266,55 +340,97 @@ public class TimerManager {
         }
     }
 
-    public Long getCurrentElapsedMillis(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return null;
-        }
+    public Long getCurrentElapsedMillis(Player player, TimerHandle timer) {
         ActiveTimer active = activeTimers.get(player.getUniqueId());
-        if (active == null || !active.getTimerId().equals(timerId)) {
+        if (active == null || active.getTimer() != timer) {
             return null;
         }
         return active.getElapsedMillis();
     }
 
-    public boolean isActive(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return false;
-        }
+    public boolean isActive(Player player, TimerHandle timer) {
         ActiveTimer active = activeTimers.get(player.getUniqueId());
-        return active != null && active.getTimerId().equals(timerId);
+        return active != null && active.getTimer() == timer;
     }
 
     /**
-     * New: check whether any player currently has an active timer with the given timerId.
-     * Accepts rawTimerId (it will be normalized here).
+     * Check whether any player currently has an active timer with the given timer.
      */
-    public boolean isAnyActive(String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return false;
+    public boolean isAnyActive(TimerHandle timer) {
+        Map<UUID, String> players = activePlayersByTimer.get(timer);
+        return players != null && !players.isEmpty();
+    }
+
+    public int getActiveCount(TimerHandle timer) {
+        Map<UUID, String> players = activePlayersByTimer.get(timer);
+        return players == null ? 0 : players.size();
+    }
+
+    /**
+     * @return names of players currently running the timer, sorted case-insensitively
+     */
+    public List<String> getActivePlayerNames(TimerHandle timer) {
+        Map<UUID, String> players = activePlayersByTimer.get(timer);
+        if (players == null || players.isEmpty()) {
+            return Collections.emptyList();
         }
-        return activeTimers.values().stream().anyMatch(a -> a.getTimerId().equals(timerId));
+        List<String> names = new ArrayList<>(players.values());
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return names;
     }
 
-    public Long getBestTimeMillis(Player player, String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return null;
+    private void activate(Player player, TimerHandle timer) {
+        UUID uuid = player.getUniqueId();
+        ActiveTimer previous = activeTimers.put(uuid, new ActiveTimer(timer, System.currentTimeMillis()));
+        if (previous != null) {
+            removeActivePlayer(uuid, previous.getTimer());
         }
-        String key = cacheKey(player.getUniqueId(), timerId);
-        Long cached = bestTimeCache.get(key);
-        if (cached != null) {
-            return cached;
+        activePlayersByTimer.computeIfAbsent(timer, k -> new ConcurrentHashMap<>()).put(uuid, player.getName());
+    }
+
+    private ActiveTimer deactivate(UUID uuid) {
+        ActiveTimer removed = activeTimers.remove(uuid);
+        if (removed != null) {
+            removeActivePlayer(uuid, removed.getTimer());
+        }
+        return removed;
+    }
+
+    private void removeActivePlayer(UUID uuid, TimerHandle timer) {
+        Map<UUID, String> players = activePlayersByTimer.get(timer);
+        if (players != null) {
+            players.remove(uuid);
+        }
+    }
+
+    public Long getBestTimeMillis(Player player, TimerHandle timer) {
+        String timerId = timer.getId();
+        long cached = bestTimeCache.get(player.getUniqueId(), timer);
+        if (cached != MISSING) {
+            return cached == NO_RECORD ? null : cached;
+        }
+
+        if (configManager.isCacheAsyncLoad()) {
+            // Render the default now; a later render picks up the loaded value.
+            String key = cacheKey(player.getUniqueId(), timer);
+            if (pendingBestTimeLoads.add(key)) {
+                UUID uuid = player.getUniqueId();
+                asyncStorage.getBestTime(uuid, timerId).whenComplete((dbValue, ex) -> {
+                    pendingBestTimeLoads.remove(key);
+                    if (ex != null) {
+                        logDbError("Error fetching best time for " + player.getName() + " timer '" + timerId + "'", ex);
+                        return;
+                    }
+                    // A stop or reset that landed meanwhile is newer than what we read.
+                    bestTimeCache.putIfAbsent(uuid, timer, dbValue == null ? NO_RECORD : dbValue);
+                });
+            }
+            return null;
         }
 
         try {
             Long dbValue = storage.getBestTime(player.getUniqueId(), timerId);
-            if (dbValue != null) {
-                bestTimeCache.put(key, dbValue);
-            }
+            bestTimeCache.put(player.getUniqueId(), timer, dbValue == null ? NO_RECORD : dbValue);
             return dbValue;
         } catch (Exception ex) {
             if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
@@ -326,29 +442,54 @@ public class TimerManager {
         }
     }
 
+    /**
+     * Fills the best-time cache for every configured timer with one storage read.
+     * Timers the player has no record for are cached as such. Blocks, so call it off the main thread.
+     */
+    public void preloadBestTimes(UUID playerUuid) {
+        Map<String, Long> stored;
+        try {
+            stored = asyncStorage.getBestTimes(playerUuid).join();
+        } catch (Exception ex) {
+            logDbError("Error preloading best times for " + playerUuid, ex);
+            return;
+        }
+
+        for (TimerHandle timer : timerRegistry.getConfigured()) {
+            Long best = stored.get(timer.getId());
+            // Values already cached are at least as fresh as what we just read.
+            bestTimeCache.putIfAbsent(playerUuid, timer, best == null ? NO_RECORD : best);
+        }
+    }
+
     public String formatMillisOrDefault(Long millis) {
         if (millis == null) {
             return configManager.getTimeDefault();
         }
-        return TimeFormatter.formatMillis(millis, configManager.getTimePattern());
+        return configManager.getTimeFormatter().format(millis);
     }
 
-    public List<LeaderboardEntry> getLeaderboard(String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
-            return Collections.emptyList();
+    public List<LeaderboardEntry> getLeaderboard(TimerHandle timer) {
+        Leaderboard leaderboard = leaderboard(timer);
+        if (leaderboard.isLoaded()) {
+            return leaderboard.getTop();
         }
-        List<LeaderboardEntry> cached = leaderboardCache.get(timerId);
-        if (cached != null) {
-            return cached;
+
+        if (configManager.isCacheAsyncLoad()) {
+            // Coalesced with any other pending refresh of this timer.
+            refreshLeaderboardCache(timer);
+            return Collections.emptyList();
         }
 
-        int topN = configManager.getTopNForTimer(timerId);
+        String timerId = timer.getId();
+        leaderboard.beginLoad();
         try {
-            List<LeaderboardEntry> entries = storage.getTopN(timerId, topN);
-            leaderboardCache.put(timerId, entries);
-            return entries;
+            if (leaderboard.finishLoad(storage.getTopN(timerId, leaderboard.getCapacity()))) {
+                refreshLeaderboardCache(timer);
+            }
+            return leaderboard.getTop();
         } catch (Exception ex) {
+            leaderboard.failLoad();
             if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
                 plugin.getLogger().severe("Error loading leaderboard for timer '" + timerId + "': " + ex.getMessage());
                 ex.printStackTrace();
@@ -357,29 +498,256 @@ public class TimerManager {
         }
     }
 
-    public void clearCachesForTimer(String timerId) {
-        if (timerId == null) {
-            return;
+    /**
+     * @return the version of the timer's loaded top N, or -1 if it is not loaded
+     */
+    public long getLeaderboardVersion(TimerHandle timer) {
+        Leaderboard leaderboard = leaderboards.get(timer);
+        return leaderboard != null && leaderboard.isLoaded() ? leaderboard.getVersion() : -1L;
+    }
+
+    /**
+     * Deletes every stored time for the timer, then drops and reloads its caches.
+     */
+    public CompletableFuture<Void> resetAllTimes(TimerHandle timer) {
+        String timerId = timer.getId();
+        CompletableFuture<Void> reset = writeQueue != null
+                ? asyncStorage.run(() -> writeQueue.resetTimer(timerId))
+                : asyncStorage.resetBestTimeForTimer(timerId);
+        return reset.whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                logDbError("Error resetting all times for timer '" + timerId + "'", ex);
+                return;
+            }
+            clearCachesForTimer(timer);
+            refreshLeaderboardCache(timer);
+        });
+    }
+
+    public void clearCachesForTimer(TimerHandle timer) {
+        bestTimeCache.removeTimer(timer);
+        leaderboards.remove(timer);
+        rankIndexes.remove(timer);
+        leaderboardPages.remove(timer);
+    }
+
+    /**
+     * Reads one page (1-based) of the full leaderboard, leaderboards.page_size entries long.
+     * Pages are keyset-paginated from the nearest cached page before the requested one,
+     * so paging forward costs one small indexed read per page. Deep pages with nothing cached
+     * in front of them are reached in reads of at most MAX_PAGES_PER_READ pages each.
+     *
+     * @return the page's entries, empty past the end or if storage fails
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getLeaderboardPage(TimerHandle timer, int page) {
+        int pageSize = configManager.getLeaderboardPageSize();
+        LeaderboardPages pages = leaderboardPages.compute(timer,
+                (t, existing) -> existing != null && existing.getPageSize() == pageSize ? existing : new LeaderboardPages(pageSize));
+
+        List<LeaderboardEntry> cached = pages.get(page);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Pages past the last ranked player are known to be empty without reading storage.
+        // Looking the index up also starts loading it, so later deep requests can be answered this way.
+        RankIndex index = rankIndex(timer);
+        long skipped = (long) (page - 1) * pageSize;
+        if (skipped >= Integer.MAX_VALUE || (index.isLoaded() && skipped >= index.getTotal())) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        int fromPage = pages.nearestCachedBefore(page);
+        List<LeaderboardEntry> previous = fromPage > 0 ? pages.get(fromPage) : null;
+        if (previous == null) {
+            fromPage = 0;
+        } else if (previous.size() < pageSize) {
+            // The cached page was the last one.
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        LeaderboardEntry after = previous == null ? null : previous.get(previous.size() - 1);
+        return readLeaderboardPages(timer, pages, pages.getGeneration(), page, fromPage + 1, after);
+    }
+
+    /**
+     * Reads pages from firstPage onwards, at most MAX_PAGES_PER_READ at a time,
+     * caching each read, until the requested page is reached or the leaderboard ends.
+     */
+    private CompletableFuture<List<LeaderboardEntry>> readLeaderboardPages(TimerHandle timer, LeaderboardPages pages,
+            long generation, int page, int firstPage, LeaderboardEntry after) {
+        int pageSize = pages.getPageSize();
+        int pageCount = Math.min(page - firstPage + 1, MAX_PAGES_PER_READ);
+        int limit = (int) Math.min(Integer.MAX_VALUE, (long) pageCount * pageSize);
+        String timerId = timer.getId();
+        return asyncStorage.getPage(timerId, after, limit).handle((rows, ex) -> {
+            if (ex != null) {
+                logDbError("Error loading leaderboard page " + page + " for timer '" + timerId + "'", ex);
+                return CompletableFuture.completedFuture(Collections.<LeaderboardEntry>emptyList());
+            }
+            pages.store(generation, firstPage, rows);
+            long start = (long) (page - firstPage) * pageSize;
+            if (start < rows.size()) {
+                int from = (int) start;
+                return CompletableFuture.completedFuture(
+                        Collections.unmodifiableList(rows.subList(from, Math.min(rows.size(), from + pageSize))));
+            }
+            if (rows.size() < limit || pages.getGeneration() != generation) {
+                // Ran out of entries, or the timer changed and the cursor is stale.
+                return CompletableFuture.completedFuture(Collections.<LeaderboardEntry>emptyList());
+            }
+            return readLeaderboardPages(timer, pages, generation, page, firstPage + pageCount, rows.get(rows.size() - 1));
+        }).thenCompose(next -> next);
+    }
+
+    /**
+     * @return the player's 1-based rank on the timer, 0 if they have no time,
+     * or null while the rank index is still loading
+     */
+    public Integer getRank(Player player, TimerHandle timer) {
+        RankIndex index = rankIndex(timer);
+        return index.isLoaded() ? index.getRank(player.getUniqueId()) : null;
+    }
+
+    /**
+     * @return how many players have a time on the timer, or null while the rank index is still loading
+     */
+    public Integer getRankedTotal(TimerHandle timer) {
+        RankIndex index = rankIndex(timer);
+        return index.isLoaded() ? index.getTotal() : null;
+    }
+
+    private void onBestTimesFlushed(List<BestTimeUpdate> improved) {
+        for (BestTimeUpdate update : improved) {
+            TimerHandle timer = timerRegistry.handle(update.getTimerId());
+            if (timer == null) {
+                continue;
+            }
+            bestTimeCache.lowerIfPresent(update.getPlayerUuid(), timer, update.getBestMillis());
+            applyImprovement(timer, update.getPlayerUuid(), update.getPlayerName(), update.getBestMillis());
+        }
+    }
+
+    private void applyImprovement(TimerHandle timer, UUID playerUuid, String playerName, long bestMillis) {
+        // Leaderboards that were never loaded pick the new time up when they are.
+        Leaderboard leaderboard = leaderboards.get(timer);
+        if (leaderboard != null) {
+            leaderboard.applyImprovement(playerUuid, playerName, bestMillis);
+        }
+        RankIndex index = rankIndexes.get(timer);
+        if (index != null) {
+            index.applyImprovement(playerUuid, bestMillis);
+        }
+        LeaderboardPages pages = leaderboardPages.get(timer);
+        if (pages != null) {
+            pages.invalidate();
         }
-        String suffix = "|" + timerId;
-        bestTimeCache.entrySet().removeIf(e -> e.getKey().endsWith(suffix));
-        leaderboardCache.remove(timerId);
     }
 
-    public void refreshLeaderboardCache(String rawTimerId) {
-        String timerId = TimerIdNormalizer.normalize(rawTimerId);
-        if (timerId == null) {
+    private void applyRemoval(TimerHandle timer, UUID playerUuid) {
+        Leaderboard leaderboard = leaderboards.get(timer);
+        if (leaderboard != null && leaderboard.applyRemoval(playerUuid)) {
+            refreshLeaderboardCache(timer);
+        }
+        RankIndex index = rankIndexes.get(timer);
+        if (index != null) {
+            index.applyRemoval(playerUuid);
+        }
+        LeaderboardPages pages = leaderboardPages.get(timer);
+        if (pages != null) {
+            pages.invalidate();
+        }
+    }
+
+    /**
+     * Reloads the timer's leaderboard from storage, replacing the in-memory copy.
+     * Requests are coalesced per timer: at most one load runs, and requests made meanwhile
+     * collapse into a single trailing load no sooner than leaderboards.refresh_debounce_ms later.
+     */
+    public void refreshLeaderboardCache(TimerHandle timer) {
+        Leaderboard leaderboard = leaderboard(timer);
+        long delayMs = leaderboard.requestRefresh(System.currentTimeMillis(), configManager.getLeaderboardRefreshDebounceMs());
+        if (delayMs == 0L) {
+            runRefresh(timer, leaderboard);
+        } else if (delayMs > 0L) {
+            scheduleRefresh(timer, leaderboard, delayMs);
+        }
+    }
+
+    private void runRefresh(TimerHandle timer, Leaderboard leaderboard) {
+        loadLeaderboard(timer, leaderboard).whenComplete((ignored, ex) -> {
+            long delayMs = leaderboard.completeRefresh(System.currentTimeMillis(), configManager.getLeaderboardRefreshDebounceMs());
+            if (delayMs >= 0L) {
+                scheduleRefresh(timer, leaderboard, delayMs);
+            }
+        });
+    }
+
+    private void scheduleRefresh(TimerHandle timer, Leaderboard leaderboard, long delayMs) {
+        Runnable start = () -> {
+            leaderboard.startQueuedRefresh(System.currentTimeMillis());
+            runRefresh(timer, leaderboard);
+        };
+        if (delayMs == 0L || !plugin.isEnabled()) {
+            start.run();
             return;
         }
-        int topN = configManager.getTopNForTimer(timerId);
-        try {
-            List<LeaderboardEntry> entries = storage.getTopN(timerId, topN);
-            leaderboardCache.put(timerId, entries);
-        } catch (Exception ex) {
-            if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
-                plugin.getLogger().severe("Error refreshing leaderboard for timer '" + timerId + "': " + ex.getMessage());
-                ex.printStackTrace();
+        Bukkit.getScheduler().runTaskLater(plugin, start, Math.max(1L, (delayMs + 49L) / 50L));
+    }
+
+    /**
+     * Returns the timer's leaderboard, replacing it with an unloaded one when a reload changed
+     * its top N or tail size.
+     */
+    private Leaderboard leaderboard(TimerHandle timer) {
+        int topN = configManager.getTopNForTimer(timer);
+        int tailSize = configManager.getLeaderboardTailSize();
+        Leaderboard current = leaderboards.get(timer);
+        if (current != null && current.hasSize(topN, tailSize)) {
+            return current;
+        }
+        return leaderboards.compute(timer,
+                (t, existing) -> existing != null && existing.hasSize(topN, tailSize) ? existing : new Leaderboard(topN, tailSize));
+    }
+
+    private CompletableFuture<Void> loadLeaderboard(TimerHandle timer, Leaderboard leaderboard) {
+        String timerId = timer.getId();
+        leaderboard.beginLoad();
+        return asyncStorage.getTopN(timerId, leaderboard.getCapacity()).handle((entries, ex) -> {
+            if (ex != null) {
+                leaderboard.failLoad();
+                logDbError("Error loading leaderboard for timer '" + timerId + "'", ex);
+            } else if (leaderboard.finishLoad(entries)) {
+                refreshLeaderboardCache(timer);
             }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the timer's rank index, starting its one-time load from storage if needed.
+     * The load always runs off the main thread since it reads every row for the timer.
+     */
+    private RankIndex rankIndex(TimerHandle timer) {
+        RankIndex index = rankIndexes.computeIfAbsent(timer, t -> new RankIndex());
+        if (index.beginLoad()) {
+            String timerId = timer.getId();
+            asyncStorage.getAllBestTimes(timerId).whenComplete((times, ex) -> {
+                if (ex != null) {
+                    index.failLoad();
+                    logDbError("Error loading ranks for timer '" + timerId + "'", ex);
+                } else {
+                    index.finishLoad(times);
+                }
+            });
+        }
+        return index;
+    }
+
+    private void logDbError(String message, Throwable ex) {
+        if (configManager.isDebugEnabled() && configManager.isDebugLogDbErrors()) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            plugin.getLogger().severe(message + ": " + cause.getMessage());
+            cause.printStackTrace();
         }
     }
 }
@@ -0,0 +1,97 @@
+package com.zenologia.ztimer.timer;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.zenologia.ztimer.util.TimerIdNormalizer;
+
+/**
+ * Interns timer ids into TimerHandles and tracks which timers are configured.
+ * Handles are only issued for ids read from the config, so the handle table and every
+ * index-sized array stay bounded no matter what players type.
+ * Raw inputs (placeholder params, command arguments) are normalized once and remembered,
+ * so repeated lookups of the same string skip TimerIdNormalizer entirely.
+ */
+public class TimerRegistry {
+
+    // Only inputs that resolve to a handle are remembered, but many spellings can map to one id, so cap them.
+    private static final int MAX_RAW_INPUTS = 4096;
+
+    private final Map<String, TimerHandle> handlesById = new ConcurrentHashMap<>();
+    private final Map<String, TimerHandle> handlesByRawInput = new ConcurrentHashMap<>();
+
+    private volatile Set<TimerHandle> configured = Collections.emptySet();
+
+    /**
+     * Resolves raw user input to its timer handle.
+     *
+     * @return the handle, or null if the input normalizes to an empty id or to an id the config never named
+     */
+    public TimerHandle resolve(String rawTimerId) {
+        if (rawTimerId == null) {
+            return null;
+        }
+        TimerHandle handle = handlesByRawInput.get(rawTimerId);
+        if (handle != null) {
+            return handle;
+        }
+
+        String normalized = TimerIdNormalizer.normalize(rawTimerId);
+        if (normalized == null) {
+            return null;
+        }
+        handle = handle(normalized);
+        if (handle == null) {
+            return null;
+        }
+        if (handlesByRawInput.size() >= MAX_RAW_INPUTS) {
+            handlesByRawInput.clear();
+        }
+        handlesByRawInput.put(rawTimerId, handle);
+        return handle;
+    }
+
+    /**
+     * Returns the handle for an id that is already normalized, such as one read back from storage.
+     *
+     * @return the handle, or null if the config never named the id
+     */
+    public TimerHandle handle(String normalizedId) {
+        return normalizedId == null ? null : handlesById.get(normalizedId);
+    }
+
+    /**
+     * Issues the handle for a normalized id taken from the config. Never call it with user input.
+     */
+    public TimerHandle intern(String normalizedId) {
+        TimerHandle handle = handlesById.get(normalizedId);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (handlesById) {
+            return handlesById.computeIfAbsent(normalizedId, id -> new TimerHandle(id, handlesById.size()));
+        }
+    }
+
+    /**
+     * Replaces the configured timer set. Handles for removed timers stay valid.
+     */
+    public void configure(Set<String> normalizedIds) {
+        Set<TimerHandle> handles = new LinkedHashSet<>();
+        for (String id : normalizedIds) {
+            handles.add(intern(id));
+        }
+        this.configured = Collections.unmodifiableSet(handles);
+    }
+
+    public boolean isConfigured(TimerHandle timer) {
+        return timer != null && configured.contains(timer);
+    }
+
+    public Set<TimerHandle> getConfigured() {
+        return configured;
+    }
+}
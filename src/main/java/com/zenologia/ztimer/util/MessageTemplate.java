@@ -0,0 +1,106 @@
+package com.zenologia.ztimer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text with %name% placeholders, split once into literal parts and slots.
+ * The parameter names are fixed at compile time and render() takes the values in that order,
+ * so rendering is one pass into a single builder with no lookups.
+ * Tokens that are not declared parameters are kept as literal text.
+ */
+public final class MessageTemplate {
+
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+    private final String constant;
+
+    private MessageTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.constant = slots.length == 0 ? literals[0] : null;
+    }
+
+    public static MessageTemplate compile(String text, String... parameters) {
+        return compileWithPrefix("", text, parameters);
+    }
+
+    /**
+     * @param prefix literal text joined in front once, never searched for placeholders
+     */
+    public static MessageTemplate compileWithPrefix(String prefix, String text, String... parameters) {
+        List<String> literalParts = new ArrayList<>();
+        List<Integer> slotParts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(prefix == null ? "" : prefix);
+        String source = text == null ? "" : text;
+
+        int i = 0;
+        while (i < source.length()) {
+            int start = source.indexOf('%', i);
+            if (start < 0) {
+                break;
+            }
+            int end = source.indexOf('%', start + 1);
+            int parameter = end < 0 ? -1 : indexOf(parameters, source.substring(start + 1, end));
+            if (parameter < 0) {
+                // Not a declared token; the closing '%' may open the next one.
+                literal.append(source, i, start + 1);
+                i = start + 1;
+                continue;
+            }
+            literal.append(source, i, start);
+            literalParts.add(literal.toString());
+            literal.setLength(0);
+            slotParts.add(parameter);
+            i = end + 1;
+        }
+        literal.append(source, i, source.length());
+        literalParts.add(literal.toString());
+
+        int[] slots = new int[slotParts.size()];
+        for (int s = 0; s < slots.length; s++) {
+            slots[s] = slotParts.get(s);
+        }
+        return new MessageTemplate(literalParts.toArray(new String[0]), slots);
+    }
+
+    /**
+     * @param values one value per compile-time parameter, in the same order; null renders as empty
+     */
+    public String render(String... values) {
+        if (constant != null) {
+            return constant;
+        }
+        int length = literalLength;
+        for (int slot : slots) {
+            String value = slot < values.length ? values[slot] : null;
+            length += value == null ? 0 : value.length();
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        for (int s = 0; s < slots.length; s++) {
+            out.append(literals[s]);
+            String value = slots[s] < values.length ? values[slots[s]] : null;
+            if (value != null) {
+                out.append(value);
+            }
+        }
+        out.append(literals[slots.length]);
+        return out.toString();
+    }
+
+    private static int indexOf(String[] parameters, String name) {
+        for (int p = 0; p < parameters.length; p++) {
+            if (parameters[p].equals(name)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,29 +1,208 @@
 package com.zenologia.ztimer.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats durations with a pattern compiled once, normally on config reload.
+ *
+ * Pattern tokens:
+ * - "H" or "h" -> hours
+ * - "m" -> minutes
+ * - "s" -> seconds
+ * - "S", "SS", "SSS" -> tenths, hundredths or milliseconds (truncated)
+ * - text in single quotes is literal, "''" is a quote; any other non-letter is literal
+ *
+ * The largest unit in the pattern is not wrapped and not padded, so "mm:ss" renders
+ * 75 minutes as "75:00". Every other unit wraps at the next larger unit in the pattern,
+ * so a skipped unit is folded into the one below it: "H:ss" renders 1h05m07s as "1:307".
+ * Other fields are zero-padded to their token length.
+ */
 public final class TimeFormatter {
 
-    private TimeFormatter() {
+    private static final String DEFAULT_PATTERN = "mm:ss";
+
+    private static final int LITERAL = 0;
+    private static final int HOURS = 1;
+    private static final int MINUTES = 2;
+    private static final int SECONDS = 3;
+    private static final int FRACTION = 4;
+
+    // Indexed by kind.
+    private static final long[] UNIT_MILLIS = {0L, 3_600_000L, 60_000L, 1000L, 1L};
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(16));
+
+    private final String pattern;
+    private final int[] kinds;
+    private final int[] widths;
+    private final String[] literals;
+    private final int leadingUnit;
+    // Per kind: how many of the unit make up the next larger unit in the pattern, 0 if none.
+    private final long[] wraps = new long[UNIT_MILLIS.length];
+
+    private TimeFormatter(String pattern, int[] kinds, int[] widths, String[] literals) {
+        this.pattern = pattern;
+        this.kinds = kinds;
+        this.widths = widths;
+        this.literals = literals;
+
+        int leading = FRACTION;
+        for (int kind : kinds) {
+            if (kind != LITERAL && kind < leading) {
+                leading = kind;
+            }
+        }
+        this.leadingUnit = leading;
+
+        boolean[] present = new boolean[UNIT_MILLIS.length];
+        for (int kind : kinds) {
+            present[kind] = true;
+        }
+        for (int kind = SECONDS; kind > HOURS; kind--) {
+            for (int larger = kind - 1; larger >= HOURS; larger--) {
+                if (present[larger]) {
+                    wraps[kind] = UNIT_MILLIS[larger] / UNIT_MILLIS[kind];
+                    break;
+                }
+            }
+        }
     }
 
     /**
-     * Format milliseconds into a string using a very small subset of patterns:
-     * - "mm:ss" -> minutes:seconds (2-digit seconds)
+     * Parses a pattern. Null or empty patterns, and "MM:SS" in any case, mean "mm:ss".
      *
-     * Only full seconds are supported; fractional seconds are ignored.
+     * @throws IllegalArgumentException if the pattern has an unquoted letter that is not a token,
+     *                                  such as the "M" in "HH:MM:SS", or no hour, minute or second field
+     */
+    public static TimeFormatter compile(String pattern) {
+        if (pattern == null || pattern.isEmpty() || pattern.equalsIgnoreCase(DEFAULT_PATTERN)) {
+            pattern = DEFAULT_PATTERN;
+        }
+
+        List<int[]> fields = new ArrayList<>();
+        List<String> literalParts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                int end = pattern.indexOf('\'', i + 1);
+                if (end == i + 1) {
+                    literal.append('\'');
+                } else {
+                    literal.append(pattern, i + 1, end < 0 ? pattern.length() : end);
+                }
+                i = end < 0 ? pattern.length() : end + 1;
+                continue;
+            }
+
+            int kind = kindOf(c);
+            if (kind == LITERAL && Character.isLetter(c)) {
+                throw new IllegalArgumentException("Unknown time pattern letter '" + c + "' in \"" + pattern + "\"; quote literal text.");
+            }
+            if (kind == LITERAL) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            int run = 1;
+            while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                run++;
+            }
+            if (literal.length() > 0) {
+                fields.add(new int[]{LITERAL, 0});
+                literalParts.add(literal.toString());
+                literal.setLength(0);
+            }
+            fields.add(new int[]{kind, kind == FRACTION ? Math.min(run, 3) : run});
+            literalParts.add(null);
+            i += run;
+        }
+        if (literal.length() > 0) {
+            fields.add(new int[]{LITERAL, 0});
+            literalParts.add(literal.toString());
+        }
+
+        int[] kinds = new int[fields.size()];
+        int[] widths = new int[fields.size()];
+        boolean hasUnit = false;
+        for (int f = 0; f < fields.size(); f++) {
+            kinds[f] = fields.get(f)[0];
+            widths[f] = fields.get(f)[1];
+            hasUnit |= kinds[f] == HOURS || kinds[f] == MINUTES || kinds[f] == SECONDS;
+        }
+        if (!hasUnit) {
+            throw new IllegalArgumentException("Time pattern \"" + pattern + "\" has no hour, minute or second field.");
+        }
+        return new TimeFormatter(pattern, kinds, widths, literalParts.toArray(new String[0]));
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public String format(long millis) {
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        formatTo(out, millis);
+        return out.toString();
+    }
+
+    /**
+     * Appends the formatted duration without allocating intermediate strings.
      */
-    public static String formatMillis(long millis, String pattern) {
-        if (pattern == null || pattern.isEmpty()) {
-            pattern = "mm:ss";
+    public void formatTo(StringBuilder out, long millis) {
+        long total = Math.max(0L, millis);
+        for (int f = 0; f < kinds.length; f++) {
+            int kind = kinds[f];
+            switch (kind) {
+                case LITERAL:
+                    out.append(literals[f]);
+                    break;
+                case FRACTION:
+                    long fraction = total % 1000L;
+                    int width = widths[f];
+                    appendPadded(out, width == 1 ? fraction / 100L : width == 2 ? fraction / 10L : fraction, width);
+                    break;
+                default:
+                    long value = unitValue(kind, total);
+                    appendPadded(out, value, kind == leadingUnit ? 1 : widths[f]);
+                    break;
+            }
         }
-        long totalSeconds = millis / 1000L;
-        long minutes = totalSeconds / 60L;
-        long seconds = totalSeconds % 60L;
+    }
+
+    private long unitValue(int kind, long total) {
+        long value = total / UNIT_MILLIS[kind];
+        return wraps[kind] == 0L ? value : value % wraps[kind];
+    }
 
-        if ("mm:ss".equalsIgnoreCase(pattern)) {
-            return String.format("%d:%02d", minutes, seconds);
+    private static int kindOf(char c) {
+        switch (c) {
+            case 'H':
+            case 'h':
+                return HOURS;
+            case 'm':
+                return MINUTES;
+            case 's':
+                return SECONDS;
+            case 'S':
+                return FRACTION;
+            default:
+                return LITERAL;
         }
+    }
 
-        // Fallback to mm:ss format if unknown pattern
-        return String.format("%d:%02d", minutes, seconds);
+    private static void appendPadded(StringBuilder out, long value, int width) {
+        int digits = 1;
+        for (long rest = value / 10L; rest > 0; rest /= 10L) {
+            digits++;
+        }
+        for (int pad = digits; pad < width; pad++) {
+            out.append('0');
+        }
+        out.append(value);
     }
 }